@@ -6,7 +6,7 @@ import java.io.InputStream;
 import java.util.Map;
 
 public class TestDataManager {
-    private static TestDataManager instance;
+    private static volatile TestDataManager instance;
     private Map<String, Object> testData;
     private final ObjectMapper objectMapper;
     
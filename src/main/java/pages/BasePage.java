@@ -1,42 +1,68 @@
 package pages;
 
 import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.HasAndroidDeviceDetails;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
 import utils.DriverUtils;
+import utils.LocatorCompiler;
+import utils.LogCategory;
+import utils.LogUtils;
+import utils.NumpadLayout;
+import utils.PageSnapshot;
+import utils.ScreenshotUtils;
+import utils.VisualComparator;
 import utils.WaitUtils;
 import utils.AssertionUtils;
 import data.TestDataManager;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class BasePage {
     protected AppiumDriver driver;
     protected TestDataManager testData;
     protected AssertionUtils assertions;
+    private static final Map<Class<?>, Boolean> elementFieldsByPageClass = new ConcurrentHashMap<>();
     
     protected BasePage() {
-        this.driver = DriverUtils.getDriver();
-        this.testData = TestDataManager.getInstance();
-        this.assertions = new AssertionUtils();
-        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(10)), this);
+        this(DriverUtils.getDriver());
     }
     
     protected BasePage(AppiumDriver driver) {
         this.driver = driver;
         this.testData = TestDataManager.getInstance();
         this.assertions = new AssertionUtils();
-        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(10)), this);
+        if (hasElementFields(getClass())) {
+            PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ofSeconds(10)), this);
+        }
     }
     
-    protected void clickElement(WebElement element) {
-        try {
-            WaitUtils.waitForElementToBeClickable(getLocator(element)).click();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to click element: " + element.toString(), e);
-        }
+    /**
+     * Whether the page class declares WebElement fields the page factory has to fill
+     */
+    private static boolean hasElementFields(Class<?> pageClass) {
+        return elementFieldsByPageClass.computeIfAbsent(pageClass, type -> {
+            for (Class<?> current = type; current != BasePage.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) && WebElement.class.isAssignableFrom(field.getType())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
     }
     
     protected void clickElement(By locator) {
@@ -47,20 +73,6 @@ public abstract class BasePage {
         }
     }
     
-    protected void enterText(WebElement element, String text) {
-        if (text == null || text.trim().isEmpty()) {
-            throw new IllegalArgumentException("Text cannot be null or empty");
-        }
-        
-        try {
-            WebElement visibleElement = WaitUtils.waitForElementToBeVisible(getLocator(element));
-            visibleElement.clear();
-            visibleElement.sendKeys(text);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to enter text '" + text + "' in element: " + element.toString(), e);
-        }
-    }
-    
     protected void enterText(By locator, String text) {
         if (text == null || text.trim().isEmpty()) {
             throw new IllegalArgumentException("Text cannot be null or empty");
@@ -75,148 +87,179 @@ public abstract class BasePage {
         }
     }
     
-    protected String getText(WebElement element) {
+    protected String getText(By locator) {
+        String snapshotText = getSnapshotText(locator);
+        if (snapshotText != null) {
+            return snapshotText;
+        }
+        
         try {
-            return WaitUtils.waitForElementToBeVisible(getLocator(element)).getText();
+            return WaitUtils.waitForElementToBeVisible(locator).getText();
         } catch (Exception e) {
-            throw new RuntimeException("Failed to get text from element: " + element.toString(), e);
+            throw new RuntimeException("Failed to get text with locator: " + locator.toString(), e);
         }
     }
     
-    protected String getText(By locator) {
+    protected boolean isElementDisplayed(By locator) {
+        if (isPresentInSnapshot(locator)) {
+            return true;
+        }
+        
         try {
-            return WaitUtils.waitForElementToBeVisible(locator).getText();
+            return WaitUtils.isElementPresent(locator);
         } catch (Exception e) {
-            throw new RuntimeException("Failed to get text with locator: " + locator.toString(), e);
+            return false;
         }
     }
     
-    protected boolean isElementDisplayed(WebElement element) {
+    protected boolean isOptionalElementDisplayed(By locator) {
+        if (isPresentInSnapshot(locator)) {
+            return true;
+        }
+        
         try {
-            return WaitUtils.isElementPresent(getLocator(element));
+            return WaitUtils.isElementPresentNow(locator);
         } catch (Exception e) {
             return false;
         }
     }
     
-    protected boolean isElementDisplayed(By locator) {
+    /**
+     * Answer presence from the current UI snapshot. Absent elements are still
+     * checked on the device because they may be about to appear.
+     */
+    private boolean isPresentInSnapshot(By locator) {
         try {
-            return WaitUtils.isElementPresent(locator);
+            return Boolean.TRUE.equals(PageSnapshot.get().isPresent(locator));
         } catch (Exception e) {
+            LogUtils.debug(LogCategory.ELEMENT, "Snapshot lookup failed for {}: {}", locator, e.getMessage());
             return false;
         }
     }
     
-    protected void waitForElementToLoad(WebElement element) {
-        WaitUtils.waitForElementToBeVisible(getLocator(element));
+    private String getSnapshotText(By locator) {
+        try {
+            return PageSnapshot.get().getText(locator);
+        } catch (Exception e) {
+            LogUtils.debug(LogCategory.ELEMENT, "Snapshot lookup failed for {}: {}", locator, e.getMessage());
+            return null;
+        }
     }
     
     protected void waitForElementToLoad(By locator) {
         WaitUtils.waitForElementToBeVisible(locator);
     }
     
-    protected boolean waitForTextToAppear(WebElement element, String expectedText) {
-        return WaitUtils.waitForTextToBePresent(getLocator(element), expectedText);
-    }
-    
     protected boolean waitForTextToAppear(By locator, String expectedText) {
         return WaitUtils.waitForTextToBePresent(locator, expectedText);
     }
     
     public BasePage verifyPageIsLoaded() {
-        assertions.assertTrue(isPageLoaded(), getPageName() + " page should be loaded");
-        return this;
+        return verifyPageIsLoaded(getPageName() + " page should be loaded");
     }
     
     public BasePage verifyPageIsLoaded(String customMessage) {
+        Class<? extends BasePage> screen = classifyScreen();
+        if (screen != null && screen != getClass()) {
+            // Possibly still mid-transition: wait on the device, then classify a fresh snapshot
+            waitForPageToAppear(testData.getTimeout("short"));
+            PageSnapshot.invalidate();
+            screen = classifyScreen();
+        }
+        
+        if (screen != null) {
+            assertions.assertEquals(screen.getSimpleName(), getClass().getSimpleName(), customMessage);
+            return this;
+        }
+        
         assertions.assertTrue(isPageLoaded(), customMessage);
         return this;
     }
     
-    protected void verifyElementIsDisplayed(By locator, String elementName) {
-        assertions.assertTrue(isElementDisplayed(locator), elementName + " should be displayed");
+    private Class<? extends BasePage> classifyScreen() {
+        try {
+            return ScreenClassifier.classify();
+        } catch (Exception e) {
+            LogUtils.debug(LogCategory.GENERAL, "Screen classification failed: {}", e.getMessage());
+            return null;
+        }
     }
     
-    protected void verifyElementIsDisplayed(WebElement element, String elementName) {
-        assertions.assertTrue(isElementDisplayed(element), elementName + " should be displayed");
+    protected void verifyElementIsDisplayed(By locator, String elementName) {
+        ScreenshotUtils.setElementUnderTest(locator);
+        assertions.assertTrue(isElementDisplayed(locator), elementName + " should be displayed");
     }
     
     protected void verifyElementText(By locator, String expectedText, String elementName) {
+        ScreenshotUtils.setElementUnderTest(locator);
         String actualText = getText(locator);
         assertions.assertEquals(actualText, expectedText, elementName + " text should match expected value");
     }
     
-    protected void verifyElementText(WebElement element, String expectedText, String elementName) {
-        String actualText = getText(element);
-        assertions.assertEquals(actualText, expectedText, elementName + " text should match expected value");
-    }
-    
     protected void verifyElementContainsText(By locator, String expectedText, String elementName) {
+        ScreenshotUtils.setElementUnderTest(locator);
         String actualText = getText(locator);
         assertions.assertTrue(actualText.contains(expectedText), 
             elementName + " should contain '" + expectedText + "' but was '" + actualText + "'");
     }
     
-    private By getLocator(WebElement element) {
-        String elementString = element.toString();
+    protected void enterPasscodeSequence(String passcode) {
+        if (passcode == null || passcode.trim().isEmpty()) {
+            throw new IllegalArgumentException("Passcode cannot be null or empty");
+        }
         
-        if (elementString.contains("By.id:")) {
-            String id = elementString.replaceAll(".*By\\.id:\"([^\"]+)\".*", "$1");
-            if (!id.equals(elementString)) {
-                return By.id(id);
-            }
-        } else if (elementString.contains("By.xpath:")) {
-            String xpath = elementString.replaceAll(".*By\\.xpath:\"([^\"]+)\".*", "$1");
-            if (!xpath.equals(elementString)) {
-                return By.xpath(xpath);
-            }
-        } else if (elementString.contains("By.className:")) {
-            String className = elementString.replaceAll(".*By\\.className:\"([^\"]+)\".*", "$1");
-            if (!className.equals(elementString)) {
-                return By.className(className);
-            }
-        } else if (elementString.contains("By.name:")) {
-            String name = elementString.replaceAll(".*By\\.name:\"([^\"]+)\".*", "$1");
-            if (!name.equals(elementString)) {
-                return By.name(name);
-            }
+        NumpadLayout layout = NumpadLayout.forCurrentScreen(this::getNumpadKeyLocator);
+        if (layout != null) {
+            layout.tap(driver, passcode);
+            return;
         }
         
-        try {
-            if (elementString.contains("id:")) {
-                String[] parts = elementString.split("id:");
-                if (parts.length > 1) {
-                    String idPart = parts[1].trim();
-                    if (idPart.startsWith("\"") && idPart.contains("\"")) {
-                        String id = idPart.substring(1, idPart.indexOf("\"", 1));
-                        return By.id(id);
-                    }
-                }
-            } else if (elementString.contains("xpath:")) {
-                String[] parts = elementString.split("xpath:");
-                if (parts.length > 1) {
-                    String xpathPart = parts[1].trim();
-                    if (xpathPart.startsWith("\"") && xpathPart.contains("\"")) {
-                        String xpath = xpathPart.substring(1, xpathPart.indexOf("\"", 1));
-                        return By.xpath(xpath);
-                    }
-                }
+        LogUtils.warn("Numpad layout could not be resolved, entering passcode key by key");
+        for (char digit : passcode.toCharArray()) {
+            clickElement(getNumpadKeyLocator(digit));
+        }
+    }
+    
+    protected By getNumpadKeyLocator(char digit) {
+        return LocatorCompiler.xpath("//android.widget.TextView[@text='" + digit + "']");
+    }
+    
+    /**
+     * Compare the current screen with its visual baseline, leaving out the given
+     * elements whose content changes between runs
+     */
+    protected void verifyVisualMatch(String baselineName, By... ignoredElements) {
+        byte[] screenshot = driver.getScreenshotAs(OutputType.BYTES);
+        PageSnapshot snapshot = PageSnapshot.get();
+        Dimension screen = snapshot.getScreenSize();
+        List<java.awt.Rectangle> ignoreRegions = new ArrayList<>();
+        for (By locator : ignoredElements) {
+            Rectangle bounds = snapshot.getBounds(locator);
+            if (bounds != null) {
+                ignoreRegions.add(new java.awt.Rectangle(bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight()));
+            } else {
+                LogUtils.warn("Ignored element not found for visual check: " + locator);
             }
-        } catch (Exception e) {
         }
         
-        throw new IllegalArgumentException("Unable to determine locator for element: " + elementString + 
-                                         ". Consider using explicit locators instead of WebElement references.");
+        VisualComparator.Result result = VisualComparator.verify(baselineName, screenshot, ignoreRegions,
+                screen != null ? screen.getWidth() : 0, getScreenUnitsPerDp());
+        assertions.assertTrue(result.isMatch(), getPageName() + " should match visual baseline (" + result + ")");
     }
     
-    protected void enterPasscodeSequence(String passcode) {
-        if (passcode == null || passcode.trim().isEmpty()) {
-            throw new IllegalArgumentException("Passcode cannot be null or empty");
+    /**
+     * Android element bounds are in device pixels, so one dp spans density / 160
+     * of them; iOS bounds are in points, which already match dp
+     */
+    private double getScreenUnitsPerDp() {
+        if (!(driver instanceof HasAndroidDeviceDetails)) {
+            return 1.0;
         }
-        
-        for (char digit : passcode.toCharArray()) {
-            By digitLocator = By.xpath("//android.widget.TextView[@text='" + digit + "']");
-            clickElement(digitLocator);
+        try {
+            return ((HasAndroidDeviceDetails) driver).getDisplayDensity() / 160.0;
+        } catch (WebDriverException e) {
+            LogUtils.warn("Display density not available, treating visual.ignoreTopDp as pixels: " + e.getMessage());
+            return 1.0;
         }
     }
     
@@ -224,7 +267,26 @@ public abstract class BasePage {
         driver.navigate().back();
     }
     
+    public boolean waitForPageToAppear() {
+        return waitForPageToAppear(testData.getTimeout("medium"));
+    }
+    
+    public boolean waitForPageToAppear(int timeoutInSeconds) {
+        try {
+            WaitUtils.waitForElementToBeVisible(getPageSignature(), timeoutInSeconds);
+            return true;
+        } catch (Exception e) {
+            LogUtils.warn(getPageName() + " did not appear within " + timeoutInSeconds + " seconds");
+            return false;
+        }
+    }
+    
     public abstract boolean isPageLoaded();
     
     protected abstract String getPageName();
+    
+    /**
+     * Locator of an element that is only shown once this page is on screen
+     */
+    protected abstract By getPageSignature();
 }
\ No newline at end of file
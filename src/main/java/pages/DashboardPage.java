@@ -2,25 +2,31 @@ package pages;
 
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
+import utils.LocatorCompiler;
+import utils.LogCategory;
 import utils.LogUtils;
 
+import java.util.List;
+
 public class DashboardPage extends BasePage {
 
     private static final By WALLET_NAME_TITLE = By.id("topBarWalletName");
     private static final By MAIN_BALANCE = By.id("mainBalance");
     private static final By BALANCE_CHANGE_24H = By.id("mainBalanceChange24h");
-    private static final By EMPTY_WALLET_MESSAGE = By.xpath("//android.widget.TextView[@text='Your wallet is empty.']");
+    private static final By EMPTY_WALLET_MESSAGE = LocatorCompiler.xpath("//android.widget.TextView[@text='Your wallet is empty.']");
     private static final By SEND_BUTTON = By.id("HomeSendButton");
     private static final By RECEIVE_BUTTON = By.id("HomeReceiveButton");
     private static final By BUY_BUTTON = By.id("HomeBuyButton");
     private static final By SELL_BUTTON = By.id("HomeSellButton");
-    private static final By TRENDING_SECTION = By.xpath("//android.widget.TextView[@text='Trending']");
+    private static final By TRENDING_SECTION = LocatorCompiler.xpath("//android.widget.TextView[@text='Trending']");
     private static final By TRENDING_TOKEN_BUTTON = By.id("TrendingTokenNavigationButton");
     private static final By SWAP_BUTTON = By.id("SwapNavigationButton");
     private static final By EARN_BUTTON = By.id("EarnNavigationButton");
     private static final By DISCOVER_BUTTON = By.id("DiscoverNavigationButton");
     private static final By HOME_BUTTON = By.id("HomeNavigationButton");
-    private static final By BOTTOM_NAV_BAR = By.xpath("//android.view.View[contains(@bounds, '[0,2208][1080,2337]')]");
+    private static final By BOTTOM_NAV_BAR = LocatorCompiler.xpath("//android.view.View[contains(@bounds, '[0,2208][1080,2337]')]");
+
+    static final List<By> SCREEN_SIGNATURE = List.of(WALLET_NAME_TITLE, MAIN_BALANCE, SEND_BUTTON, RECEIVE_BUTTON);
 
     public DashboardPage(AppiumDriver driver) {
         super(driver);
@@ -33,7 +39,7 @@ public class DashboardPage extends BasePage {
                           isElementDisplayed(MAIN_BALANCE) &&
                           isElementDisplayed(SEND_BUTTON) &&
                           isElementDisplayed(RECEIVE_BUTTON);
-        LogUtils.info("DashboardPage loaded status: " + isLoaded);
+        LogUtils.info(LogCategory.ELEMENT, "DashboardPage loaded status: {}", isLoaded);
         return isLoaded;
     }
 
@@ -42,6 +48,11 @@ public class DashboardPage extends BasePage {
         return "Dashboard Page";
     }
 
+    @Override
+    protected By getPageSignature() {
+        return WALLET_NAME_TITLE;
+    }
+
     public void clickSend() {
         LogUtils.action("Clicking Send button");
         clickElement(SEND_BUTTON);
@@ -89,25 +100,25 @@ public class DashboardPage extends BasePage {
 
     public String getWalletName() {
         String walletName = getText(WALLET_NAME_TITLE);
-        LogUtils.info("Wallet name: " + walletName);
+        LogUtils.info(LogCategory.DATA, "Wallet name: {}", walletName);
         return walletName;
     }
 
     public String getMainBalance() {
         String balance = getText(MAIN_BALANCE);
-        LogUtils.info("Main balance: " + balance);
+        LogUtils.info(LogCategory.DATA, "Main balance: {}", balance);
         return balance;
     }
 
     public String getBalanceChange24h() {
         String change = getText(BALANCE_CHANGE_24H);
-        LogUtils.info("24h balance change: " + change);
+        LogUtils.info(LogCategory.DATA, "24h balance change: {}", change);
         return change;
     }
 
     public String getEmptyWalletMessage() {
         String message = getText(EMPTY_WALLET_MESSAGE);
-        LogUtils.info("Empty wallet message: " + message);
+        LogUtils.info(LogCategory.DATA, "Empty wallet message: {}", message);
         return message;
     }
 
@@ -142,51 +153,57 @@ public class DashboardPage extends BasePage {
         return this;
     }
 
+    public DashboardPage verifyVisualBaseline() {
+        LogUtils.step("Verifying dashboard matches its visual baseline");
+        verifyVisualMatch("dashboard", MAIN_BALANCE, BALANCE_CHANGE_24H, WALLET_NAME_TITLE);
+        return this;
+    }
+
     public boolean isTrendingTokenButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(TRENDING_TOKEN_BUTTON);
-        LogUtils.debug("Trending Token button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Trending Token button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isSwapButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(SWAP_BUTTON);
-        LogUtils.debug("Swap button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Swap button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isEarnButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(EARN_BUTTON);
-        LogUtils.debug("Earn button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Earn button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isDiscoverButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(DISCOVER_BUTTON);
-        LogUtils.debug("Discover button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Discover button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isHomeButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(HOME_BUTTON);
-        LogUtils.debug("Home button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Home button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isEmptyWalletMessageDisplayed() {
         boolean isDisplayed = isElementDisplayed(EMPTY_WALLET_MESSAGE);
-        LogUtils.debug("Empty wallet message displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Empty wallet message displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isTrendingSectionDisplayed() {
         boolean isDisplayed = isElementDisplayed(TRENDING_SECTION);
-        LogUtils.debug("Trending section displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Trending section displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isBottomNavigationDisplayed() {
         boolean isDisplayed = isElementDisplayed(BOTTOM_NAV_BAR);
-        LogUtils.debug("Bottom navigation displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Bottom navigation displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
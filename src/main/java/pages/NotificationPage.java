@@ -2,15 +2,21 @@ package pages;
 
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
+import utils.LocatorCompiler;
+import utils.LogCategory;
 import utils.LogUtils;
 
+import java.util.List;
+
 public class NotificationPage extends BasePage {
 
-    private static final By NOTIFICATION_TITLE = By.xpath("//android.widget.TextView[@text='Keep up with the market!']");
+    private static final By NOTIFICATION_TITLE = LocatorCompiler.xpath("//android.widget.TextView[@text='Keep up with the market!']");
     private static final By NOTIFICATION_DESCRIPTION = By.id("infoDialogContent");
     private static final By ENABLE_NOTIFICATIONS_BUTTON = By.id("buttonTitle");
     private static final By SKIP_BUTTON = By.id("secondaryAction");
 
+    static final List<By> SCREEN_SIGNATURE = List.of(NOTIFICATION_DESCRIPTION, SKIP_BUTTON);
+
     public NotificationPage(AppiumDriver driver) {
         super(driver);
         LogUtils.info("NotificationPage initialized");
@@ -19,7 +25,7 @@ public class NotificationPage extends BasePage {
     @Override
     public boolean isPageLoaded() {
         boolean isLoaded = isElementDisplayed(NOTIFICATION_DESCRIPTION) && isElementDisplayed(SKIP_BUTTON);
-        LogUtils.info("NotificationPage loaded status: " + isLoaded);
+        LogUtils.info(LogCategory.ELEMENT, "NotificationPage loaded status: {}", isLoaded);
         return isLoaded;
     }
 
@@ -28,17 +34,18 @@ public class NotificationPage extends BasePage {
         return "Notification Page";
     }
 
+    @Override
+    protected By getPageSignature() {
+        return NOTIFICATION_DESCRIPTION;
+    }
+
     public WalletReadyPage clickEnableNotifications() {
         LogUtils.action("Clicking Enable Notifications button");
         clickElement(ENABLE_NOTIFICATIONS_BUTTON);
         
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        return new WalletReadyPage(driver);
+        WalletReadyPage walletReadyPage = PageCache.get(WalletReadyPage.class, driver);
+        walletReadyPage.waitForPageToAppear();
+        return walletReadyPage;
     }
 
     public NotificationPage verifyPageIsLoaded() {
@@ -65,7 +72,7 @@ public class NotificationPage extends BasePage {
 
     private boolean isEnableNotificationsButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(ENABLE_NOTIFICATIONS_BUTTON);
-        LogUtils.debug("Enable Notifications button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Enable Notifications button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package pages;
+
+import io.appium.java_client.AppiumDriver;
+import utils.DriverUtils;
+import utils.LogCategory;
+import utils.LogUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Page objects reused for as long as the calling thread holds one driver lease.
+ * Pages are created through plain constructor references instead of reflection.
+ * A new lease starts with an empty cache, even when the pool hands the same
+ * session out again, so page state never carries over from one test to the next.
+ */
+public class PageCache {
+    private static final Map<Class<? extends BasePage>, Function<AppiumDriver, ? extends BasePage>> FACTORIES = Map.of(
+            SplashPage.class, SplashPage::new,
+            PasscodePage.class, PasscodePage::new,
+            NotificationPage.class, NotificationPage::new,
+            WalletReadyPage.class, WalletReadyPage::new,
+            DashboardPage.class, DashboardPage::new);
+
+    private static final ThreadLocal<SessionPages> sessionPages = new ThreadLocal<>();
+
+    public static <T extends BasePage> T get(Class<T> pageClass, AppiumDriver driver) {
+        SessionPages pages = sessionPages.get();
+        if (pages == null || pages.driver != driver || pages.leaseId != DriverUtils.getLeaseId()
+                || !pages.sessionId.equals(String.valueOf(driver.getSessionId()))) {
+            pages = new SessionPages(driver);
+            sessionPages.set(pages);
+        }
+
+        BasePage page = pages.byClass.get(pageClass);
+        if (page == null) {
+            Function<AppiumDriver, ? extends BasePage> factory = FACTORIES.get(pageClass);
+            if (factory == null) {
+                throw new IllegalArgumentException("No page factory registered for " + pageClass.getName());
+            }
+            page = factory.apply(driver);
+            pages.byClass.put(pageClass, page);
+        } else {
+            LogUtils.debug(LogCategory.GENERAL, "Reusing {} for session {}", pageClass.getSimpleName(), pages.sessionId);
+        }
+        return pageClass.cast(page);
+    }
+
+    public static void clear() {
+        sessionPages.remove();
+    }
+
+    private static class SessionPages {
+        private final AppiumDriver driver;
+        private final String sessionId;
+        private final long leaseId;
+        private final Map<Class<? extends BasePage>, BasePage> byClass = new HashMap<>();
+
+        private SessionPages(AppiumDriver driver) {
+            this.driver = driver;
+            this.sessionId = String.valueOf(driver.getSessionId());
+            this.leaseId = DriverUtils.getLeaseId();
+        }
+    }
+}
@@ -2,12 +2,25 @@ package pages;
 
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
+import utils.LocatorCompiler;
+import utils.LogCategory;
 import utils.LogUtils;
+import utils.WaitUtils;
+
+import java.util.List;
 
 public class PasscodePage extends BasePage {
 
     private static final By BACK_BUTTON = By.id("toolbarButtonBack");
-    private static final By PASSCODE_INSTRUCTION_TEXT = By.xpath("//android.widget.TextView[@text='Enter your passcode. Be sure to remember it so you can unlock your wallet.']");
+    private static final By NUMPAD_SIGNATURE = LocatorCompiler.xpath("//android.widget.TextView[@text='1']");
+    private static final By CONFIRM_PASSCODE_TITLE = LocatorCompiler.xpath("//android.widget.TextView[@text='Confirm passcode']");
+    private static final By PASSCODE_INSTRUCTION_TEXT = LocatorCompiler.xpath("//android.widget.TextView[@text='Enter your passcode. Be sure to remember it so you can unlock your wallet.']");
+
+    static final List<By> SCREEN_SIGNATURE = List.of(NUMPAD_SIGNATURE,
+            LocatorCompiler.xpath("//android.widget.TextView[@text='2']"),
+            LocatorCompiler.xpath("//android.widget.TextView[@text='0']"));
+    
+    private static final int IDLE_TIMEOUT_SECONDS = 10;
     
     private boolean isCreateMode = true;
 
@@ -19,7 +32,7 @@ public class PasscodePage extends BasePage {
     @Override
     public boolean isPageLoaded() {
         boolean isLoaded = isNumpadDisplayed();
-        LogUtils.info("PasscodePage loaded status: " + isLoaded);
+        LogUtils.info(LogCategory.ELEMENT, "PasscodePage loaded status: {}", isLoaded);
         return isLoaded;
     }
 
@@ -28,6 +41,18 @@ public class PasscodePage extends BasePage {
         return isCreateMode ? "Create Passcode Page" : "Confirm Passcode Page";
     }
 
+    @Override
+    protected By getPageSignature() {
+        return NUMPAD_SIGNATURE;
+    }
+
+    /**
+     * Reset a cached instance to the create step when the passcode flow starts again
+     */
+    void startCreateFlow() {
+        isCreateMode = true;
+    }
+
     public PasscodePage enterPasscode(String passcode) {
         LogUtils.action("Entering passcode");
         LogUtils.dataEntry("passcode", passcode);
@@ -36,18 +61,16 @@ public class PasscodePage extends BasePage {
             throw new IllegalArgumentException("Passcode cannot be null or empty");
         }
         
-        for (char digit : passcode.toCharArray()) {
-            clickDigit(String.valueOf(digit));
-        }
+        enterPasscodeSequence(passcode);
         
-        try {
-            Thread.sleep(1000); 
-            if (isPageLoaded()) {
-                isCreateMode = false; 
-                LogUtils.info("Moved to passcode confirmation mode");
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        int timeout = testData.getTimeout("short");
+        if (!isCreateMode) {
+            PageCache.get(NotificationPage.class, driver).waitForPageToAppear(timeout);
+        } else if (WaitUtils.isElementPresent(CONFIRM_PASSCODE_TITLE, timeout)) {
+            isCreateMode = false;
+            LogUtils.info("Moved to passcode confirmation mode");
+        } else {
+            LogUtils.warn("Confirm passcode step did not appear within " + timeout + " seconds");
         }
         
         return this;
@@ -68,9 +91,7 @@ public class PasscodePage extends BasePage {
         LogUtils.action("Entering partial passcode for testing");
         LogUtils.dataEntry("partial passcode", partialPasscode);
         
-        for (char digit : partialPasscode.toCharArray()) {
-            clickDigit(String.valueOf(digit));
-        }
+        enterPasscodeSequence(partialPasscode);
         return this;
     }
 
@@ -127,7 +148,7 @@ public class PasscodePage extends BasePage {
     public PasscodePage verifyPasscodeInstructionIfPresent() {
         LogUtils.step("Verifying passcode instruction text if present");
         
-        if (isElementDisplayed(PASSCODE_INSTRUCTION_TEXT)) {
+        if (isOptionalElementDisplayed(PASSCODE_INSTRUCTION_TEXT)) {
             LogUtils.verification("Passcode instruction text is present and displayed", true);
             verifyElementIsDisplayed(PASSCODE_INSTRUCTION_TEXT, "Passcode instruction text");
             
@@ -169,17 +190,9 @@ public class PasscodePage extends BasePage {
         return this;
     }
 
-    private PasscodePage clickDigit(String digit) {
-        LogUtils.elementInteraction("Click digit", digit);
-        By digitLocator = By.xpath("//android.widget.TextView[@text='" + digit + "']");
-        clickElement(digitLocator);
-        return this;
-    }
-
     private boolean isDigitButtonDisplayed(String digit) {
-        By digitLocator = By.xpath("//android.widget.TextView[@text='" + digit + "']");
-        boolean isDisplayed = isElementDisplayed(digitLocator);
-        LogUtils.debug("Digit button " + digit + " displayed: " + isDisplayed);
+        boolean isDisplayed = isElementDisplayed(getNumpadKeyLocator(digit.charAt(0)));
+        LogUtils.debug(LogCategory.ELEMENT, "Digit button {} displayed: {}", digit, isDisplayed);
         return isDisplayed;
     }
 
@@ -187,23 +200,20 @@ public class PasscodePage extends BasePage {
         boolean numpadDisplayed = isDigitButtonDisplayed("1") && 
                                  isDigitButtonDisplayed("2") && 
                                  isDigitButtonDisplayed("0");
-        LogUtils.debug("Numpad displayed: " + numpadDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Numpad displayed: {}", numpadDisplayed);
         return numpadDisplayed;
     }
 
     private boolean isBackButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(BACK_BUTTON);
-        LogUtils.debug("Back button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Back button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     private void waitForTimeoutScenario() {
         LogUtils.debug("Simulating timeout scenario");
-        try {
-            Thread.sleep(10000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LogUtils.warn("Timeout simulation interrupted");
+        if (WaitUtils.waitForElementToDisappear(NUMPAD_SIGNATURE, IDLE_TIMEOUT_SECONDS)) {
+            LogUtils.warn("Passcode screen was left while idle");
         }
     }
 }
\ No newline at end of file
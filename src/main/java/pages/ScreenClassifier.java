@@ -0,0 +1,76 @@
+package pages;
+
+import org.openqa.selenium.By;
+import utils.LogCategory;
+import utils.LogUtils;
+import utils.NumpadLayout;
+import utils.PageSnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tells which page is on screen from a single page-source snapshot by matching
+ * it against the signature locators of every page. A page matches when all of
+ * its signature elements are present; the most specific match wins. When the
+ * screen differs from the one last classified on the calling thread, the cached
+ * {@link NumpadLayout} is dropped, since its key positions belong to the old screen.
+ */
+public class ScreenClassifier {
+    private static final Map<Class<? extends BasePage>, List<By>> SIGNATURES = new LinkedHashMap<>();
+    private static final ThreadLocal<Class<? extends BasePage>> lastScreen = new ThreadLocal<>();
+
+    static {
+        SIGNATURES.put(SplashPage.class, SplashPage.SCREEN_SIGNATURE);
+        SIGNATURES.put(PasscodePage.class, PasscodePage.SCREEN_SIGNATURE);
+        SIGNATURES.put(NotificationPage.class, NotificationPage.SCREEN_SIGNATURE);
+        SIGNATURES.put(WalletReadyPage.class, WalletReadyPage.SCREEN_SIGNATURE);
+        SIGNATURES.put(DashboardPage.class, DashboardPage.SCREEN_SIGNATURE);
+    }
+
+    /**
+     * Page currently on screen, or null when no signature matches
+     */
+    public static Class<? extends BasePage> classify() {
+        return classify(PageSnapshot.get());
+    }
+
+    public static Class<? extends BasePage> classify(PageSnapshot snapshot) {
+        Class<? extends BasePage> best = null;
+        int bestSize = 0;
+        for (Map.Entry<Class<? extends BasePage>, List<By>> signature : SIGNATURES.entrySet()) {
+            if (signature.getValue().size() > bestSize && matches(snapshot, signature.getValue())) {
+                best = signature.getKey();
+                bestSize = signature.getValue().size();
+            }
+        }
+        if (best != lastScreen.get()) {
+            NumpadLayout.invalidate();
+            lastScreen.set(best);
+        }
+        return best;
+    }
+
+    /**
+     * Name of the page on screen for logs and failure reports, never throws
+     */
+    public static String describeCurrentScreen() {
+        try {
+            Class<? extends BasePage> screen = classify();
+            return screen != null ? screen.getSimpleName() : "unknown screen";
+        } catch (Exception e) {
+            LogUtils.debug(LogCategory.GENERAL, "Could not classify current screen: {}", e.getMessage());
+            return "unavailable (" + e.getClass().getSimpleName() + ")";
+        }
+    }
+
+    private static boolean matches(PageSnapshot snapshot, List<By> signature) {
+        for (By locator : signature) {
+            if (!Boolean.TRUE.equals(snapshot.isPresent(locator))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
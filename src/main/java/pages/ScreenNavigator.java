@@ -0,0 +1,198 @@
+package pages;
+
+import data.TestDataManager;
+import io.appium.java_client.AppiumDriver;
+import utils.DriverUtils;
+import utils.LogCategory;
+import utils.LogUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Moves the app to a target page along the cheapest known route from whatever
+ * screen it is on. Pages and the actions between them form a graph; edge costs
+ * start from rough estimates and are replaced by a moving average of measured
+ * transition times, so faster alternatives (e.g. back vs. restart) win over time.
+ * A transition that does not arrive is penalised and the route is planned again.
+ */
+public class ScreenNavigator {
+    private static final double SMOOTHING = 0.3;
+    private static final double FAILURE_PENALTY = 2.0;
+    private static final int MAX_ATTEMPTS = 4;
+
+    private static final List<Transition> TRANSITIONS = List.of(
+            new Transition("create wallet", SplashPage.class, PasscodePage.class, 3000, "medium",
+                    driver -> PageCache.get(SplashPage.class, driver).clickCreateNewWallet()),
+            new Transition("create passcode", PasscodePage.class, NotificationPage.class, 8000, "medium",
+                    driver -> PageCache.get(PasscodePage.class, driver)
+                            .createPasscodeFlow(TestDataManager.getInstance().getValidPasscode())),
+            new Transition("enable notifications", NotificationPage.class, WalletReadyPage.class, 3000, "medium",
+                    driver -> PageCache.get(NotificationPage.class, driver).clickEnableNotifications()),
+            new Transition("skip wallet ready", WalletReadyPage.class, DashboardPage.class, 3000, "medium",
+                    driver -> PageCache.get(WalletReadyPage.class, driver).clickSkip()),
+            new Transition("back", PasscodePage.class, SplashPage.class, 2000, "medium",
+                    driver -> driver.navigate().back()),
+            new Transition("restart", null, SplashPage.class, 15000, "pageLoad",
+                    driver -> DriverUtils.clearAppState(System.getProperty("platform", "android"))));
+
+    /**
+     * Navigate from the current screen to the target page
+     *
+     * @throws IllegalStateException when the target cannot be reached
+     */
+    public static <T extends BasePage> T navigateTo(Class<T> target) {
+        AppiumDriver driver = DriverUtils.getDriver();
+        Class<? extends BasePage> current = ScreenClassifier.classify();
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && current != target; attempt++) {
+            List<Transition> route = findRoute(current, target);
+            if (route == null) {
+                throw new IllegalStateException("No route from " + name(current) + " to " + target.getSimpleName());
+            }
+            LogUtils.debug(LogCategory.GENERAL, "Route to {}: {}", target.getSimpleName(), route);
+
+            for (Transition transition : route) {
+                current = transition.run(driver);
+                if (current != transition.to) {
+                    LogUtils.warn("Transition '" + transition.name + "' landed on " + name(current)
+                            + ", planning a new route");
+                    break;
+                }
+            }
+        }
+
+        if (current != target) {
+            throw new IllegalStateException("Could not reach " + target.getSimpleName() + " after "
+                    + MAX_ATTEMPTS + " routes, on " + name(current));
+        }
+        return PageCache.get(target, driver);
+    }
+
+    /**
+     * Current cost estimate of every transition, for logs
+     */
+    public static String getCostSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (Transition transition : TRANSITIONS) {
+            summary.append(String.format("%n  %-22s %-18s -> %-18s %7.0fms (%d samples)",
+                    transition.name, name(transition.from), transition.to.getSimpleName(),
+                    transition.getCost(), transition.getSamples()));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Cheapest route by estimated cost; restart is possible from any screen, including an unknown one
+     */
+    private static List<Transition> findRoute(Class<? extends BasePage> from, Class<? extends BasePage> to) {
+        Map<Class<? extends BasePage>, Double> costs = new HashMap<>();
+        Map<Class<? extends BasePage>, Class<? extends BasePage>> previous = new HashMap<>();
+        Map<Class<? extends BasePage>, Transition> via = new HashMap<>();
+        Set<Class<? extends BasePage>> settled = new HashSet<>();
+        List<Class<? extends BasePage>> pending = new ArrayList<>();
+
+        costs.put(from, 0.0);
+        pending.add(from);
+        while (!pending.isEmpty()) {
+            Class<? extends BasePage> node = pending.get(0);
+            for (Class<? extends BasePage> candidate : pending) {
+                if (costs.get(candidate) < costs.get(node)) {
+                    node = candidate;
+                }
+            }
+            pending.remove(node);
+            if (!settled.add(node) || node == to) {
+                continue;
+            }
+            for (Transition transition : TRANSITIONS) {
+                if (transition.from != null && transition.from != node) {
+                    continue;
+                }
+                double cost = costs.get(node) + transition.getCost();
+                if (cost < costs.getOrDefault(transition.to, Double.MAX_VALUE)) {
+                    costs.put(transition.to, cost);
+                    previous.put(transition.to, node);
+                    via.put(transition.to, transition);
+                    pending.add(transition.to);
+                }
+            }
+        }
+
+        if (!via.containsKey(to)) {
+            return null;
+        }
+        List<Transition> route = new ArrayList<>();
+        for (Class<? extends BasePage> node = to; node != from; node = previous.get(node)) {
+            route.add(0, via.get(node));
+        }
+        return route;
+    }
+
+    private static String name(Class<? extends BasePage> page) {
+        return page != null ? page.getSimpleName() : "unknown screen";
+    }
+
+    private static class Transition {
+        private final String name;
+        private final Class<? extends BasePage> from;
+        private final Class<? extends BasePage> to;
+        private final String arrivalTimeout;
+        private final Consumer<AppiumDriver> action;
+        private double cost;
+        private int samples;
+
+        private Transition(String name, Class<? extends BasePage> from, Class<? extends BasePage> to,
+                           double initialCost, String arrivalTimeout, Consumer<AppiumDriver> action) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+            this.cost = initialCost;
+            this.arrivalTimeout = arrivalTimeout;
+            this.action = action;
+        }
+
+        /**
+         * Perform the action and return the screen it ended on
+         */
+        private Class<? extends BasePage> run(AppiumDriver driver) {
+            long start = System.currentTimeMillis();
+            boolean arrived = false;
+            try {
+                action.accept(driver);
+                arrived = PageCache.get(to, driver)
+                        .waitForPageToAppear(TestDataManager.getInstance().getTimeout(arrivalTimeout));
+            } catch (Exception | AssertionError e) {
+                LogUtils.warn("Transition '" + name + "' failed: " + e.getMessage());
+            }
+
+            long elapsed = System.currentTimeMillis() - start;
+            record(arrived ? elapsed : elapsed * FAILURE_PENALTY);
+            LogUtils.performance("Transition " + name, elapsed);
+            return arrived ? to : ScreenClassifier.classify();
+        }
+
+        private synchronized void record(double elapsedMs) {
+            cost = samples == 0 ? elapsedMs : SMOOTHING * elapsedMs + (1 - SMOOTHING) * cost;
+            samples++;
+        }
+
+        private synchronized double getCost() {
+            return cost;
+        }
+
+        private synchronized int getSamples() {
+            return samples;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
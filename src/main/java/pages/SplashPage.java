@@ -2,13 +2,19 @@ package pages;
 
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
+import utils.LocatorCompiler;
+import utils.LogCategory;
 import utils.LogUtils;
 
+import java.util.List;
+
 public class SplashPage extends BasePage {
     private static final By CREATE_NEW_WALLET_BUTTON = By.id("CreateNewWalletButton");
     private static final By IMPORT_WALLET_BUTTON = By.id("ImportWalletButton");
-    private static final By TERMS_AND_PRIVACY_TEXT = By.xpath("//android.widget.TextView[contains(@text, 'By tapping any button you agree and consent to')]");
-    private static final By SPLASH_TITLE_TEXT = By.xpath("//android.widget.TextView[contains(@text, 'the power of your digital assets')]");
+    private static final By TERMS_AND_PRIVACY_TEXT = LocatorCompiler.xpath("//android.widget.TextView[contains(@text, 'By tapping any button you agree and consent to')]");
+    private static final By SPLASH_TITLE_TEXT = LocatorCompiler.xpath("//android.widget.TextView[contains(@text, 'the power of your digital assets')]");
+
+    static final List<By> SCREEN_SIGNATURE = List.of(CREATE_NEW_WALLET_BUTTON, IMPORT_WALLET_BUTTON);
 
     public SplashPage(AppiumDriver driver) {
         super(driver);
@@ -20,7 +26,7 @@ public class SplashPage extends BasePage {
         try {
             boolean isLoaded = isElementDisplayed(CREATE_NEW_WALLET_BUTTON) && 
                               isElementDisplayed(IMPORT_WALLET_BUTTON);
-            LogUtils.info("SplashPage loaded status: " + isLoaded);
+            LogUtils.info(LogCategory.ELEMENT, "SplashPage loaded status: {}", isLoaded);
             return isLoaded;
         } catch (Exception e) {
             LogUtils.error("Error checking if SplashPage is loaded: " + e.getMessage());
@@ -33,10 +39,18 @@ public class SplashPage extends BasePage {
         return "Splash Page";
     }
 
+    @Override
+    protected By getPageSignature() {
+        return CREATE_NEW_WALLET_BUTTON;
+    }
+
     public PasscodePage clickCreateNewWallet() {
         LogUtils.action("Clicking Create New Wallet button");
         clickElement(CREATE_NEW_WALLET_BUTTON);
-        return new PasscodePage(driver);
+        PasscodePage passcodePage = PageCache.get(PasscodePage.class, driver);
+        passcodePage.startCreateFlow();
+        passcodePage.waitForPageToAppear();
+        return passcodePage;
     }
 
     public SplashPage verifyPageIsLoaded() {
@@ -70,14 +84,14 @@ public class SplashPage extends BasePage {
     public SplashPage verifyOptionalElementsIfPresent() {
         LogUtils.step("Verifying optional splash page elements if present");
         
-        if (isElementDisplayed(TERMS_AND_PRIVACY_TEXT)) {
+        if (isOptionalElementDisplayed(TERMS_AND_PRIVACY_TEXT)) {
             LogUtils.verification("Terms and Privacy text is present and displayed", true);
             verifyElementIsDisplayed(TERMS_AND_PRIVACY_TEXT, "Terms and Privacy text");
         } else {
             LogUtils.info("Terms and Privacy text not found on current splash page");
         }
         
-        if (isElementDisplayed(SPLASH_TITLE_TEXT)) {
+        if (isOptionalElementDisplayed(SPLASH_TITLE_TEXT)) {
             LogUtils.verification("Splash title text is present and displayed", true);
             verifyElementIsDisplayed(SPLASH_TITLE_TEXT, "Splash title text");
         } else {
@@ -89,13 +103,13 @@ public class SplashPage extends BasePage {
 
     public boolean isCreateNewWalletButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(CREATE_NEW_WALLET_BUTTON);
-        LogUtils.debug("Create New Wallet button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Create New Wallet button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     public boolean isImportWalletButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(IMPORT_WALLET_BUTTON);
-        LogUtils.debug("Import Wallet button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Import Wallet button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
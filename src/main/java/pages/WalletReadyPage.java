@@ -2,14 +2,20 @@ package pages;
 
 import io.appium.java_client.AppiumDriver;
 import org.openqa.selenium.By;
+import utils.LocatorCompiler;
+import utils.LogCategory;
 import utils.LogUtils;
 
+import java.util.List;
+
 public class WalletReadyPage extends BasePage {
-    private static final By WALLET_READY_TITLE = By.xpath("//android.widget.TextView[@text='Brilliant, your wallet is ready!']");
-    private static final By WALLET_READY_SUBTITLE = By.xpath("//android.widget.TextView[@text='Buy or deposit to get started.']");
-    private static final By BUY_CRYPTO_BUTTON = By.xpath("//android.widget.TextView[@text='Buy Crypto']");
-    private static final By DEPOSIT_CRYPTO_BUTTON = By.xpath("//android.widget.TextView[@text='Deposit Crypto']");
-    private static final By SKIP_BUTTON = By.xpath("//android.widget.TextView[contains(@text, 'Skip')]");
+    private static final By WALLET_READY_TITLE = LocatorCompiler.xpath("//android.widget.TextView[@text='Brilliant, your wallet is ready!']");
+    private static final By WALLET_READY_SUBTITLE = LocatorCompiler.xpath("//android.widget.TextView[@text='Buy or deposit to get started.']");
+    private static final By BUY_CRYPTO_BUTTON = LocatorCompiler.xpath("//android.widget.TextView[@text='Buy Crypto']");
+    private static final By DEPOSIT_CRYPTO_BUTTON = LocatorCompiler.xpath("//android.widget.TextView[@text='Deposit Crypto']");
+    private static final By SKIP_BUTTON = LocatorCompiler.xpath("//android.widget.TextView[contains(@text, 'Skip')]");
+
+    static final List<By> SCREEN_SIGNATURE = List.of(WALLET_READY_TITLE);
 
     public WalletReadyPage(AppiumDriver driver) {
         super(driver);
@@ -19,7 +25,7 @@ public class WalletReadyPage extends BasePage {
     @Override
     public boolean isPageLoaded() {
         boolean isLoaded = isElementDisplayed(WALLET_READY_TITLE);
-        LogUtils.info("WalletReadyPage loaded status: " + isLoaded);
+        LogUtils.info(LogCategory.ELEMENT, "WalletReadyPage loaded status: {}", isLoaded);
         return isLoaded;
     }
 
@@ -28,17 +34,18 @@ public class WalletReadyPage extends BasePage {
         return "Wallet Ready Page";
     }
 
+    @Override
+    protected By getPageSignature() {
+        return WALLET_READY_TITLE;
+    }
+
     public DashboardPage clickSkip() {
         LogUtils.action("Clicking Skip button to proceed to dashboard");
         clickElement(SKIP_BUTTON);
         
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        return new DashboardPage(driver);
+        DashboardPage dashboardPage = PageCache.get(DashboardPage.class, driver);
+        dashboardPage.waitForPageToAppear();
+        return dashboardPage;
     }
 
     public WalletReadyPage verifyPageIsLoaded() {
@@ -57,6 +64,12 @@ public class WalletReadyPage extends BasePage {
         return this;
     }
 
+    public WalletReadyPage verifyVisualBaseline() {
+        LogUtils.step("Verifying Wallet Ready page matches its visual baseline");
+        verifyVisualMatch("wallet_ready");
+        return this;
+    }
+
     public WalletReadyPage verifyPageTexts() {
         LogUtils.step("Verifying Wallet Ready page text content");
         
@@ -101,31 +114,31 @@ public class WalletReadyPage extends BasePage {
     
     private boolean isWalletReadyTitleDisplayed() {
         boolean isDisplayed = isElementDisplayed(WALLET_READY_TITLE);
-        LogUtils.debug("Wallet Ready title displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Wallet Ready title displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     private boolean isWalletReadySubtitleDisplayed() {
         boolean isDisplayed = isElementDisplayed(WALLET_READY_SUBTITLE);
-        LogUtils.debug("Wallet Ready subtitle displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Wallet Ready subtitle displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     private boolean isSkipButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(SKIP_BUTTON);
-        LogUtils.debug("Skip button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Skip button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     private boolean isBuyCryptoButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(BUY_CRYPTO_BUTTON);
-        LogUtils.debug("Buy Crypto button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Buy Crypto button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 
     private boolean isDepositCryptoButtonDisplayed() {
         boolean isDisplayed = isElementDisplayed(DEPOSIT_CRYPTO_BUTTON);
-        LogUtils.debug("Deposit Crypto button displayed: " + isDisplayed);
+        LogUtils.debug(LogCategory.ELEMENT, "Deposit Crypto button displayed: {}", isDisplayed);
         return isDisplayed;
     }
 }
\ No newline at end of file
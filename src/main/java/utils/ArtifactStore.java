@@ -0,0 +1,365 @@
+package utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for screenshots and page sources under target/.
+ * Every distinct artifact is kept once as objects/&lt;sha256&gt;.&lt;ext&gt;; the
+ * human-readable copies (screenshots directory, Allure results) are hard links
+ * to that blob. Each stored artifact is recorded in a {@link RetentionIndex},
+ * which {@link #gc(int, String...)} uses to enforce the count, age and size
+ * quotas without listing the directories; screenshots and page sources already
+ * on disk when the index is first created are imported into it. Only
+ * byte-identical content is shared, so every stored artifact is exactly what
+ * was captured.
+ */
+public class ArtifactStore {
+    private static final int COPY_CHUNK = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> COPY_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(COPY_CHUNK));
+
+    private static final Path ROOT;
+    private static final Path OBJECTS;
+    private static final long MAX_AGE_MS;
+    private static final long MAX_TOTAL_BYTES;
+    private static final String RUN_ID = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+
+    private static final RetentionIndex index;
+    private static long duplicates;
+    private static long bytesSaved;
+
+    static {
+        Map<String, Object> config = ConfigManager.getInstance().getArtifactConfig("android");
+        ROOT = Paths.get(String.valueOf(config.getOrDefault("path", "target/artifacts/")));
+        OBJECTS = ROOT.resolve("objects");
+        MAX_AGE_MS = Long.parseLong(String.valueOf(config.getOrDefault("maxAgeDays", 0))) * 24 * 60 * 60 * 1000;
+        MAX_TOTAL_BYTES = Long.parseLong(String.valueOf(config.getOrDefault("maxTotalMb", 0))) * 1024 * 1024;
+        createRoot();
+        Path indexFile = ROOT.resolve("index.log");
+        boolean firstBuild = !Files.exists(indexFile);
+        index = new RetentionIndex(indexFile);
+        if (firstBuild) {
+            Object screenshots = ConfigManager.getInstance().getScreenshotConfig("android").get("path");
+            if (screenshots != null) {
+                importExisting(Paths.get(String.valueOf(screenshots)), "png", "jpg");
+            }
+            importExisting(ROOT.resolve("page-sources"), "xml");
+        }
+    }
+
+    /**
+     * Stored artifact: its content hash, the blob holding it and the path it was stored under
+     */
+    public static class Ref {
+        private final String sha256;
+        private final String extension;
+        private final Path link;
+
+        private Ref(String sha256, String extension, Path link) {
+            this.sha256 = sha256;
+            this.extension = extension;
+            this.link = link;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public Path getBlob() {
+            return OBJECTS.resolve(sha256 + "." + extension);
+        }
+
+        public Path getLink() {
+            return link;
+        }
+
+        @Override
+        public String toString() {
+            return link + " -> " + sha256.substring(0, 12);
+        }
+    }
+
+    /**
+     * Store content and make it visible at the given path, writing the blob only
+     * when this content has not been stored before
+     */
+    public static Ref put(byte[] content, Path link, String extension) {
+        return put(new ByteArrayInputStream(content), link, extension, currentTest.get());
+    }
+
+    /**
+     * Store streamed content. The stream is hashed while it is written to a
+     * temporary file through a reused buffer, so the content is never held in
+     * memory as a whole; the stream is not closed.
+     *
+     * @param test name of the test the artifact belongs to, recorded in the retention index
+     */
+    public static Ref put(InputStream content, Path link, String extension, String test) {
+        try {
+            return store((temp, digest) -> copy(content, temp, digest), link, extension, System.currentTimeMillis(), test);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store artifact " + link, e);
+        }
+    }
+
+    /**
+     * Store content produced by a writer, e.g. an image encoder, straight into the
+     * store's temporary file; the content is hashed as it is written
+     */
+    public static Ref put(ContentWriter content, Path link, String extension, String test) {
+        try {
+            return store((temp, digest) -> write(content, temp, digest), link, extension, System.currentTimeMillis(), test);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store artifact " + link, e);
+        }
+    }
+
+    /**
+     * Produces an artifact's content into the stream it is given
+     */
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Store a page source dump under the artifacts directory
+     */
+    public static Ref putPageSource(String name, String pageSource) {
+        String filename = name.replaceAll("[^a-zA-Z0-9_-]", "_") + "_" + System.currentTimeMillis() + ".xml";
+        return put(pageSource.getBytes(StandardCharsets.UTF_8), ROOT.resolve("page-sources").resolve(filename), "xml");
+    }
+
+    /**
+     * Make an existing blob visible at another path, e.g. inside the Allure results
+     *
+     * @return false when the file system does not support hard links here
+     */
+    public static boolean link(Ref ref, Path target) {
+        try {
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Files.createLink(target, ref.getBlob());
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Test that artifacts stored from the calling thread belong to
+     */
+    public static void setCurrentTest(String test) {
+        currentTest.set(test);
+    }
+
+    public static String getCurrentTest() {
+        return currentTest.get();
+    }
+
+    /**
+     * Keep the newest keepLastN artifacts of the given kinds together (none when
+     * zero, all when negative) and apply the configured age and total size
+     * quotas, deleting the evicted links and the blobs nothing refers to any
+     * more in parallel
+     */
+    public static synchronized void gc(int keepLastN, String... extensions) {
+        RetentionIndex.Eviction eviction = index.evict(Set.of(extensions), keepLastN, MAX_AGE_MS, MAX_TOTAL_BYTES);
+        List<Path> paths = new ArrayList<>(eviction.links.size() + eviction.blobs.size());
+        paths.addAll(eviction.links);
+        for (String blob : eviction.blobs) {
+            paths.add(OBJECTS.resolve(blob));
+        }
+        long deleted = paths.parallelStream().filter(ArtifactStore::deleteQuietly).count();
+
+        LogUtils.debug(LogCategory.DATA, () -> "Artifact GC: evicted " + eviction.links.size() + " artifacts and "
+                + eviction.blobs.size() + " blobs (" + deleted + " files deleted), " + index.size() + " artifacts live");
+    }
+
+    public static synchronized String getStats() {
+        return index.size() + " artifacts, " + index.blobCount() + " blobs (" + (index.getTotalBytes() / 1024) + " KB), "
+                + duplicates + " duplicates, " + (bytesSaved / 1024) + " KB saved";
+    }
+
+    private static Ref store(TempWriter content, Path link, String extension, long storedAt, String test) throws IOException {
+        Files.createDirectories(OBJECTS);
+        Path temp = Files.createTempFile(OBJECTS, "incoming", ".tmp");
+        MessageDigest digest = newDigest();
+        long size;
+        try {
+            size = content.write(temp, digest);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        return commit(temp, size, toHex(digest.digest()), link, extension, storedAt, test);
+    }
+
+    private static synchronized Ref commit(Path temp, long size, String sha256, Path link,
+                                           String extension, long storedAt, String test) throws IOException {
+        Ref ref = new Ref(sha256, extension, link);
+        Path blob = ref.getBlob();
+        String blobName = blob.getFileName().toString();
+        if (index.hasBlob(blobName) && Files.exists(blob)) {
+            Files.delete(temp);
+            duplicates++;
+            bytesSaved += size;
+            LogUtils.debug(LogCategory.DATA, "Artifact {} already stored as {}", link.getFileName(), sha256);
+        } else {
+            Files.move(temp, blob, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        linkTo(blob, link);
+        index.add(blobName, extension, size, storedAt, test, RUN_ID, link);
+        return ref;
+    }
+
+    /**
+     * Writes content to the store's temporary file, feeding the digest, and returns its size
+     */
+    private interface TempWriter {
+        long write(Path target, MessageDigest digest) throws IOException;
+    }
+
+    private static long write(ContentWriter content, Path target, MessageDigest digest) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new DigestOutputStream(Channels.newOutputStream(channel), digest)) {
+            content.writeTo(out);
+            out.flush();
+            return channel.size();
+        }
+    }
+
+    static long copy(InputStream content, Path target, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = COPY_BUFFER.get();
+        byte[] chunk = buffer.array();
+        long total = 0;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int read;
+            while ((read = content.read(chunk)) != -1) {
+                digest.update(chunk, 0, read);
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Move files written before the index existed into the store, oldest first
+     * and dated by their modification time, so the quotas apply to them too
+     */
+    private static void importExisting(Path directory, String... extensions) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> extensionOf(path, extensions) != null).collect(Collectors.toList());
+        } catch (IOException e) {
+            LogUtils.warn("Failed to list " + directory + " for the artifact index: " + e.getMessage());
+            return;
+        }
+        Map<Path, Long> modified = new HashMap<>();
+        for (Path file : files) {
+            try {
+                modified.put(file, Files.getLastModifiedTime(file).toMillis());
+            } catch (IOException e) {
+                modified.put(file, 0L);
+            }
+        }
+        files.sort(Comparator.comparing(modified::get));
+
+        int imported = 0;
+        for (Path file : files) {
+            try (InputStream content = Files.newInputStream(file)) {
+                store((temp, digest) -> copy(content, temp, digest), file, extensionOf(file, extensions), modified.get(file), null);
+                imported++;
+            } catch (IOException | RuntimeException e) {
+                LogUtils.warn("Failed to import " + file.getFileName() + " into the artifact store: " + e.getMessage());
+            }
+        }
+        if (imported > 0) {
+            LogUtils.info("Imported " + imported + " existing artifacts from " + directory + " into the artifact index");
+        }
+    }
+
+    private static String extensionOf(Path file, String... extensions) {
+        String name = file.getFileName().toString();
+        for (String extension : extensions) {
+            if (name.endsWith("." + extension)) {
+                return extension;
+            }
+        }
+        return null;
+    }
+
+    private static void linkTo(Path blob, Path link) throws IOException {
+        Files.createDirectories(link.toAbsolutePath().getParent());
+        Files.deleteIfExists(link);
+        try {
+            Files.createLink(link, blob);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(blob, link);
+        }
+    }
+
+    private static void createRoot() {
+        try {
+            Files.createDirectories(ROOT);
+        } catch (IOException e) {
+            LogUtils.warn("Failed to create artifact directory " + ROOT + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LogUtils.warn("Failed to delete artifact " + path.getFileName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    private static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
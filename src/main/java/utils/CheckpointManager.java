@@ -0,0 +1,185 @@
+package utils;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures and restores app data at named checkpoints so tests can skip
+ * replaying UI flows. Archives live on the device under a directory keyed by
+ * the APK hash, so installing a new build invalidates them automatically.
+ */
+public class CheckpointManager {
+    private static final ConfigManager config = ConfigManager.getInstance();
+    private static final String PLATFORM = "android";
+    private static final Set<String> knownCheckpoints = ConcurrentHashMap.newKeySet();
+    private static final Set<String> preparedDevices = ConcurrentHashMap.newKeySet();
+    private static final Set<String> unsupportedDevices = ConcurrentHashMap.newKeySet();
+    private static volatile String apkHash;
+
+    /**
+     * Restore a previously captured checkpoint. Returns false when the checkpoint
+     * does not exist yet or cannot be restored, in which case the caller should
+     * drive the UI and capture it.
+     */
+    public static boolean restore(String name) {
+        AndroidDriver androidDriver = getAndroidDriver();
+        if (androidDriver == null || !isEnabled(androidDriver)) {
+            return false;
+        }
+
+        String archive = getArchivePath(name);
+        String cacheKey = getDeviceKey(androidDriver) + ":" + archive;
+        try {
+            if (!knownCheckpoints.contains(cacheKey)) {
+                String exists = shell(androidDriver, "[ -f " + archive + " ] && echo yes || echo no").trim();
+                if (!"yes".equals(exists)) {
+                    LogUtils.debug(LogCategory.DATA, "No checkpoint '{}' for current APK yet", name);
+                    return false;
+                }
+                knownCheckpoints.add(cacheKey);
+            }
+
+            long restoreStart = System.currentTimeMillis();
+            String appPackage = config.getAppPackage(PLATFORM);
+            String dataDir = "/data/data/" + appPackage;
+            shell(androidDriver, "am force-stop " + appPackage
+                    + " && owner=$(stat -c %u:%g " + dataDir + ")"
+                    + " && rm -rf " + dataDir + "/*"
+                    + " && tar -xzf " + archive + " -C /data/data"
+                    + " && chown -R $owner " + dataDir
+                    + " && (restorecon -R " + dataDir + " || true)");
+            androidDriver.activateApp(appPackage);
+
+            LogUtils.performance("Checkpoint restore '" + name + "'", System.currentTimeMillis() - restoreStart);
+            return true;
+        } catch (Exception e) {
+            markUnsupported(androidDriver, "restore", e);
+            return false;
+        }
+    }
+
+    /**
+     * Capture the current app data as a checkpoint. The app is stopped while the
+     * archive is written and relaunched afterwards.
+     */
+    public static void capture(String name) {
+        AndroidDriver androidDriver = getAndroidDriver();
+        if (androidDriver == null || !isEnabled(androidDriver)) {
+            return;
+        }
+
+        String archive = getArchivePath(name);
+        try {
+            long captureStart = System.currentTimeMillis();
+            prepareDevice(androidDriver);
+
+            String appPackage = config.getAppPackage(PLATFORM);
+            shell(androidDriver, "am force-stop " + appPackage
+                    + " && tar -czf " + archive + " -C /data/data " + appPackage);
+            androidDriver.activateApp(appPackage);
+            knownCheckpoints.add(getDeviceKey(androidDriver) + ":" + archive);
+
+            LogUtils.performance("Checkpoint capture '" + name + "'", System.currentTimeMillis() - captureStart);
+        } catch (Exception e) {
+            markUnsupported(androidDriver, "capture", e);
+        }
+    }
+
+    private static void prepareDevice(AndroidDriver androidDriver) {
+        String deviceKey = getDeviceKey(androidDriver);
+        if (preparedDevices.contains(deviceKey)) {
+            return;
+        }
+        String baseDir = getDeviceDir();
+        String hash = getApkHash();
+        shell(androidDriver, "mkdir -p " + baseDir + "/" + hash
+                + " && find " + baseDir + " -mindepth 1 -maxdepth 1 ! -name " + hash + " -exec rm -rf {} +");
+        preparedDevices.add(deviceKey);
+    }
+
+    private static boolean isEnabled(AndroidDriver androidDriver) {
+        Object enabled = config.getCheckpointConfig(PLATFORM).get("enabled");
+        return enabled != null && Boolean.parseBoolean(enabled.toString())
+                && getApkHash() != null
+                && !unsupportedDevices.contains(getDeviceKey(androidDriver));
+    }
+
+    private static void markUnsupported(AndroidDriver androidDriver, String operation, Exception e) {
+        unsupportedDevices.add(getDeviceKey(androidDriver));
+        LogUtils.warn("Checkpoint " + operation + " failed, falling back to UI navigation on this device: " + e.getMessage());
+    }
+
+    private static String shell(AndroidDriver androidDriver, String command) {
+        Object output = androidDriver.executeScript("mobile: shell",
+                Map.of("command", "sh", "args", List.of("-c", "'" + command + "'")));
+        return output != null ? output.toString() : "";
+    }
+
+    private static String getArchivePath(String name) {
+        return getDeviceDir() + "/" + getApkHash() + "/" + name.replaceAll("[^a-zA-Z0-9_-]", "_") + ".tgz";
+    }
+
+    private static String getDeviceDir() {
+        Object dir = config.getCheckpointConfig(PLATFORM).get("deviceDir");
+        return dir != null ? dir.toString() : "/data/local/tmp/appium-checkpoints";
+    }
+
+    private static String getDeviceKey(AndroidDriver androidDriver) {
+        Map<String, Object> device = DeviceAllocator.getCurrentDevice();
+        return device != null ? DeviceAllocator.getDeviceId(device) : String.valueOf(androidDriver.getSessionId());
+    }
+
+    private static AndroidDriver getAndroidDriver() {
+        AppiumDriver currentDriver = DriverUtils.getDriver();
+        return currentDriver instanceof AndroidDriver ? (AndroidDriver) currentDriver : null;
+    }
+
+    private static String getApkHash() {
+        if (apkHash == null) {
+            synchronized (CheckpointManager.class) {
+                if (apkHash == null) {
+                    apkHash = computeApkHash();
+                }
+            }
+        }
+        return apkHash.isEmpty() ? null : apkHash;
+    }
+
+    private static String computeApkHash() {
+        String appPath = config.getAppPath(PLATFORM);
+        Path apk = appPath != null ? Paths.get(System.getProperty("user.dir"), appPath) : null;
+        if (apk == null || !Files.isRegularFile(apk)) {
+            LogUtils.warn("APK not found, checkpoints disabled: " + apk);
+            return "";
+        }
+
+        try (InputStream input = Files.newInputStream(apk)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.substring(0, 16);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            LogUtils.warn("Failed to hash APK, checkpoints disabled: " + e.getMessage());
+            return "";
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package utils;
+
+import io.qameta.allure.Allure;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Per-command latency statistics for every driver command. Recording happens on
+ * the calling thread without locks; results are reported per test and per suite,
+ * grouped both by command and by the page method that issued it.
+ */
+public class CommandMetrics {
+    private static final String PAGES_PACKAGE = "pages.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private static final Queue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(() -> {
+        Recorder created = new Recorder();
+        recorders.add(created);
+        return created;
+    });
+    private static final Map<String, CommandStats> suiteByCommand = new TreeMap<>();
+    private static final Map<String, CommandStats> suiteByPageMethod = new TreeMap<>();
+
+    /**
+     * Record one executed command
+     *
+     * @param command      W3C command name, e.g. findElement
+     * @param strategy     locator strategy for find commands, otherwise null
+     * @param latencyNanos wall-clock time of the round trip
+     * @param payloadBytes size of the response payload when it is textual, otherwise 0
+     * @param success      whether the command completed without error
+     */
+    public static void record(String command, String strategy, long latencyNanos, long payloadBytes, boolean success) {
+        String commandKey = strategy == null ? command : command + "[" + strategy + "]";
+        long latencyMicros = latencyNanos / 1000;
+
+        Recorder current = recorder.get();
+        current.byCommand.computeIfAbsent(commandKey, key -> new CommandStats())
+                .record(latencyMicros, payloadBytes, success);
+        current.byPageMethod.computeIfAbsent(findCallingPageMethod(), key -> new CommandStats())
+                .record(latencyMicros, payloadBytes, success);
+    }
+
+    /**
+     * Fold anything the current thread recorded outside a test, e.g. during setup,
+     * into the suite totals so it is not reported as part of the next test
+     */
+    public static void startTest() {
+        flush(recorder.get());
+    }
+
+    /**
+     * Report the current thread's commands for the finished test and fold them into the suite totals
+     */
+    public static void dumpTest(String testName) {
+        Recorder current = recorder.get();
+        if (current.byCommand.isEmpty()) {
+            return;
+        }
+        String report = format("Driver commands for " + testName, current.byCommand, current.byPageMethod);
+        LogUtils.debug(LogCategory.PERFORMANCE, report);
+        attach("Driver command latency", report);
+        flush(current);
+    }
+
+    /**
+     * Report totals for every command recorded during the suite
+     */
+    public static void dumpSuite() {
+        recorders.forEach(CommandMetrics::flush);
+        String report;
+        synchronized (suiteByCommand) {
+            if (suiteByCommand.isEmpty()) {
+                return;
+            }
+            report = format("Driver commands for suite", suiteByCommand, suiteByPageMethod);
+        }
+        LogUtils.info(report);
+    }
+
+    private static void flush(Recorder source) {
+        synchronized (suiteByCommand) {
+            merge(source.byCommand, suiteByCommand);
+            merge(source.byPageMethod, suiteByPageMethod);
+        }
+        source.byCommand.clear();
+        source.byPageMethod.clear();
+    }
+
+    private static void merge(Map<String, CommandStats> from, Map<String, CommandStats> into) {
+        from.forEach((key, stats) -> into.computeIfAbsent(key, k -> new CommandStats()).add(stats));
+    }
+
+    private static String findCallingPageMethod() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(PAGES_PACKAGE))
+                .filter(f -> !f.getClassName().equals("pages.BasePage"))
+                .findFirst());
+        return frame.map(f -> f.getClassName().substring(PAGES_PACKAGE.length()) + "." + f.getMethodName())
+                .orElse("(outside pages)");
+    }
+
+    private static String format(String title, Map<String, CommandStats> byCommand, Map<String, CommandStats> byPageMethod) {
+        StringBuilder report = new StringBuilder(title).append('\n');
+        appendTable(report, "command", byCommand);
+        report.append('\n');
+        appendTable(report, "page method", byPageMethod);
+        return report.toString();
+    }
+
+    private static void appendTable(StringBuilder report, String keyHeader, Map<String, CommandStats> stats) {
+        report.append(String.format("%-40s %7s %9s %9s %9s %9s %9s %6s %10s%n",
+                keyHeader, "count", "total ms", "mean ms", "p50 ms", "p99 ms", "max ms", "fails", "bytes"));
+
+        List<Map.Entry<String, CommandStats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().totalMicros, a.getValue().totalMicros));
+        for (Map.Entry<String, CommandStats> entry : entries) {
+            CommandStats s = entry.getValue();
+            report.append(String.format("%-40s %7d %9.1f %9.1f %9.1f %9.1f %9.1f %6d %10d%n",
+                    entry.getKey(),
+                    s.histogram.getTotalCount(),
+                    s.totalMicros / 1000.0,
+                    s.histogram.getMean() / 1000.0,
+                    s.histogram.getValueAtPercentile(50) / 1000.0,
+                    s.histogram.getValueAtPercentile(99) / 1000.0,
+                    s.histogram.getMaxValue() / 1000.0,
+                    s.failures,
+                    s.payloadBytes));
+        }
+    }
+
+    private static void attach(String name, String report) {
+        try {
+            Allure.addAttachment(name, "text/plain", report);
+        } catch (Exception e) {
+            LogUtils.debug(LogCategory.PERFORMANCE, "Failed to attach command metrics to Allure: {}", e.getMessage());
+        }
+    }
+
+    private static class Recorder {
+        private final Map<String, CommandStats> byCommand = new HashMap<>();
+        private final Map<String, CommandStats> byPageMethod = new HashMap<>();
+    }
+
+    private static class CommandStats {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long totalMicros;
+        private long failures;
+        private long payloadBytes;
+
+        private void record(long latencyMicros, long bytes, boolean success) {
+            histogram.record(latencyMicros);
+            totalMicros += latencyMicros;
+            payloadBytes += bytes;
+            if (!success) {
+                failures++;
+            }
+        }
+
+        private void add(CommandStats other) {
+            histogram.add(other.histogram);
+            totalMicros += other.totalMicros;
+            payloadBytes += other.payloadBytes;
+            failures += other.failures;
+        }
+    }
+}
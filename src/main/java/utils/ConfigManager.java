@@ -2,10 +2,14 @@ package utils;
 
 import org.yaml.snakeyaml.Yaml;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ConfigManager {
-    private static ConfigManager instance;
+    private static volatile ConfigManager instance;
     private Map<String, Object> deviceConfig;
     
     private ConfigManager() {
@@ -50,7 +54,32 @@ public class ConfigManager {
             throw new RuntimeException("Capabilities not found for platform: " + platform);
         }
         
-        return capabilities;
+        return Collections.unmodifiableMap(capabilities);
+    }
+    
+    /**
+     * Get the capabilities of every configured device for a platform. Each entry of the
+     * optional 'devices' list overrides the shared capabilities; without the list the
+     * shared capabilities describe a single device.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Map<String, Object>> getDevices(String platform) {
+        Map<String, Object> sharedCapabilities = getDeviceCapabilities(platform);
+        Map<String, Object> platformConfig = (Map<String, Object>) deviceConfig.get(platform.toLowerCase());
+        List<Map<String, Object>> deviceEntries = (List<Map<String, Object>>) platformConfig.get("devices");
+        
+        List<Map<String, Object>> devices = new ArrayList<>();
+        if (deviceEntries == null || deviceEntries.isEmpty()) {
+            devices.add(new LinkedHashMap<>(sharedCapabilities));
+            return devices;
+        }
+        
+        for (Map<String, Object> entry : deviceEntries) {
+            Map<String, Object> device = new LinkedHashMap<>(sharedCapabilities);
+            device.putAll(entry);
+            devices.add(device);
+        }
+        return devices;
     }
     
     @SuppressWarnings("unchecked")
@@ -173,4 +202,43 @@ public class ConfigManager {
         
         return allureConfig;
     }
-} 
\ No newline at end of file
+    
+    public Map<String, Object> getPoolConfig(String platform) {
+        return getOptionalSection(platform, "pool");
+    }
+    
+    public Map<String, Object> getCheckpointConfig(String platform) {
+        return getOptionalSection(platform, "checkpoint");
+    }
+    
+    public Map<String, Object> getNumpadConfig(String platform) {
+        return getOptionalSection(platform, "numpad");
+    }
+    
+    public Map<String, Object> getArtifactConfig(String platform) {
+        return getOptionalSection(platform, "artifacts");
+    }
+    
+    public Map<String, Object> getRecorderConfig(String platform) {
+        return getOptionalSection(platform, "recorder");
+    }
+    
+    public Map<String, Object> getVisualConfig(String platform) {
+        return getOptionalSection(platform, "visual");
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> getOptionalSection(String platform, String section) {
+        if (deviceConfig == null) {
+            throw new RuntimeException("Device configuration not loaded");
+        }
+        
+        Map<String, Object> platformConfig = (Map<String, Object>) deviceConfig.get(platform.toLowerCase());
+        if (platformConfig == null) {
+            throw new IllegalArgumentException("Platform '" + platform + "' not found in device configuration");
+        }
+        
+        Map<String, Object> sectionConfig = (Map<String, Object>) platformConfig.get(section);
+        return sectionConfig != null ? Collections.unmodifiableMap(sectionConfig) : Collections.emptyMap();
+    }
+}
\ No newline at end of file
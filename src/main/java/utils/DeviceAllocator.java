@@ -0,0 +1,147 @@
+package utils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out configured devices to test threads, one device per thread at a time,
+ * with non-conflicting driver ports allocated up front
+ */
+public class DeviceAllocator {
+    private static final int DEFAULT_SYSTEM_PORT = 8200;
+    private static final int DEFAULT_MJPEG_SERVER_PORT = 7810;
+    private static final int DEFAULT_WDA_LOCAL_PORT = 8100;
+    private static final int MAX_PORT_PROBES = 200;
+
+    private static final ConfigManager config = ConfigManager.getInstance();
+    private static final Map<String, BlockingQueue<Map<String, Object>>> freeDevices = new ConcurrentHashMap<>();
+    private static final Map<String, List<Map<String, Object>>> allDevices = new ConcurrentHashMap<>();
+    private static final Set<Integer> reservedPorts = new HashSet<>();
+    private static final ThreadLocal<Map<String, Object>> currentDevice = new ThreadLocal<>();
+    private static final ThreadLocal<String> currentPlatform = new ThreadLocal<>();
+
+    /**
+     * Lease a device to the calling thread, blocking until one is free. A thread
+     * that already holds a device for the platform gets the same device back.
+     */
+    public static Map<String, Object> acquire(String platform, long timeoutMs) {
+        String key = platform.toLowerCase();
+        Map<String, Object> held = currentDevice.get();
+        if (held != null && key.equals(currentPlatform.get())) {
+            return held;
+        }
+
+        try {
+            Map<String, Object> device = getQueue(key).poll(timeoutMs, TimeUnit.MILLISECONDS);
+            if (device == null) {
+                throw new IllegalStateException("No free " + platform + " device after " + timeoutMs + "ms");
+            }
+            currentDevice.set(device);
+            currentPlatform.set(key);
+            LogUtils.config("Device leased to " + Thread.currentThread().getName(), getDeviceId(device));
+            return device;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + platform + " device", e);
+        }
+    }
+
+    /**
+     * Return the calling thread's device to the free list
+     */
+    public static void release() {
+        Map<String, Object> device = currentDevice.get();
+        String platform = currentPlatform.get();
+        currentDevice.remove();
+        currentPlatform.remove();
+        if (device != null && platform != null) {
+            getQueue(platform).offer(device);
+        }
+    }
+
+    public static Map<String, Object> getCurrentDevice() {
+        return currentDevice.get();
+    }
+
+    public static int getDeviceCount(String platform) {
+        return getDevices(platform.toLowerCase()).size();
+    }
+
+    public static String getDeviceId(Map<String, Object> device) {
+        Object udid = device.get("udid");
+        return udid != null ? udid.toString() : String.valueOf(device.get("deviceName"));
+    }
+
+    private static BlockingQueue<Map<String, Object>> getQueue(String platform) {
+        return freeDevices.computeIfAbsent(platform, key -> new LinkedBlockingQueue<>(getDevices(key)));
+    }
+
+    private static List<Map<String, Object>> getDevices(String platform) {
+        return allDevices.computeIfAbsent(platform, DeviceAllocator::resolveDevices);
+    }
+
+    private static synchronized List<Map<String, Object>> resolveDevices(String platform) {
+        List<Map<String, Object>> resolved = new ArrayList<>();
+        boolean xcuiTest = "XCUITest".equalsIgnoreCase(String.valueOf(config.getDeviceCapabilities(platform).get("automationName")));
+
+        Map<String, Integer> nextPort = new HashMap<>();
+        for (Map<String, Object> device : config.getDevices(platform)) {
+            Map<String, Object> capabilities = new LinkedHashMap<>(device);
+            assignPort(capabilities, "systemPort", DEFAULT_SYSTEM_PORT, nextPort);
+            assignPort(capabilities, "mjpegServerPort", DEFAULT_MJPEG_SERVER_PORT, nextPort);
+            if (xcuiTest) {
+                assignPort(capabilities, "wdaLocalPort", DEFAULT_WDA_LOCAL_PORT, nextPort);
+            }
+            resolved.add(Collections.unmodifiableMap(capabilities));
+            LogUtils.config("Device " + getDeviceId(capabilities),
+                    "systemPort=" + capabilities.get("systemPort")
+                    + ", mjpegServerPort=" + capabilities.get("mjpegServerPort")
+                    + (xcuiTest ? ", wdaLocalPort=" + capabilities.get("wdaLocalPort") : ""));
+        }
+        return Collections.unmodifiableList(resolved);
+    }
+
+    private static void assignPort(Map<String, Object> capabilities, String name, int defaultBase, Map<String, Integer> nextPort) {
+        Object explicit = capabilities.get(name);
+        int base = nextPort.getOrDefault(name, explicit != null ? Integer.parseInt(explicit.toString()) : defaultBase);
+
+        if (explicit != null && !reservedPorts.contains(Integer.parseInt(explicit.toString()))) {
+            int port = Integer.parseInt(explicit.toString());
+            reservedPorts.add(port);
+            nextPort.put(name, Math.max(base, port + 1));
+            return;
+        }
+
+        for (int port = base; port < base + MAX_PORT_PROBES; port++) {
+            if (!reservedPorts.contains(port) && isPortFree(port)) {
+                reservedPorts.add(port);
+                capabilities.put(name, port);
+                nextPort.put(name, port + 1);
+                return;
+            }
+        }
+        throw new IllegalStateException("No free port for " + name + " in range " + base + "-" + (base + MAX_PORT_PROBES));
+    }
+
+    private static boolean isPortFree(int port) {
+        try (ServerSocket socket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress())) {
+            socket.setReuseAddress(true);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package utils;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+
+/**
+ * Switches the suite to method-level parallelism with one thread per configured
+ * device. With a single device the suite runs exactly as written in testng.xml.
+ */
+public class DeviceGridListener implements IAlterSuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String platform = System.getProperty("platform", "android");
+        int deviceCount = DeviceAllocator.getDeviceCount(platform);
+        LogUtils.config("Devices configured for " + platform, String.valueOf(deviceCount));
+
+        if (deviceCount < 2) {
+            return;
+        }
+
+        for (XmlSuite suite : suites) {
+            suite.setParallel(XmlSuite.ParallelMode.METHODS);
+            suite.setThreadCount(deviceCount);
+            for (XmlTest test : suite.getTests()) {
+                test.setParallel(XmlSuite.ParallelMode.METHODS);
+                test.setThreadCount(deviceCount);
+            }
+            LogUtils.config("Parallel device grid", suite.getName() + " running with " + deviceCount + " threads");
+        }
+    }
+}
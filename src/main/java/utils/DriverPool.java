@@ -0,0 +1,322 @@
+package utils;
+
+import io.appium.java_client.AppiumDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Pool of live Appium sessions that are leased to tests and returned after use
+ */
+public class DriverPool {
+    private final String platform;
+    private final int maxSize;
+    private final long leaseTimeoutMs;
+    private final Supplier<AppiumDriver> factory;
+    private final Predicate<AppiumDriver> healthCheck;
+    private final Predicate<AppiumDriver> resetter;
+
+    private final LinkedBlockingDeque<AppiumDriver> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong prewarmed = new AtomicLong();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong totalLeaseWaitMs = new AtomicLong();
+    private final AtomicLong maxLeaseWaitMs = new AtomicLong();
+    private final AtomicLong totalPrewarmSavedMs = new AtomicLong();
+
+    private final ExecutorService prewarmExecutor;
+    private final Semaphore prewarmSlots;
+    private final Map<AppiumDriver, Long> prewarmCostMs = new ConcurrentHashMap<>();
+
+    public DriverPool(String platform, int maxSize, long leaseTimeoutMs,
+                      Supplier<AppiumDriver> factory,
+                      Predicate<AppiumDriver> healthCheck,
+                      Predicate<AppiumDriver> resetter) {
+        this(platform, maxSize, leaseTimeoutMs, 0, factory, healthCheck, resetter);
+    }
+
+    /**
+     * @param maxInFlight number of sessions that may be created or reset in the
+     *                    background at once; 0 disables pre-warming
+     */
+    public DriverPool(String platform, int maxSize, long leaseTimeoutMs, int maxInFlight,
+                      Supplier<AppiumDriver> factory,
+                      Predicate<AppiumDriver> healthCheck,
+                      Predicate<AppiumDriver> resetter) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1 but was " + maxSize);
+        }
+        this.platform = platform;
+        this.maxSize = maxSize;
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        this.factory = factory;
+        this.healthCheck = healthCheck;
+        this.resetter = resetter;
+        this.prewarmSlots = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+        this.prewarmExecutor = maxInFlight > 0 ? Executors.newFixedThreadPool(maxInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "driver-prewarm-" + platform);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Lease a healthy session, reusing an idle one when possible
+     */
+    public AppiumDriver lease() {
+        long start = System.currentTimeMillis();
+        long deadline = start + leaseTimeoutMs;
+
+        while (true) {
+            AppiumDriver candidate = idle.pollFirst();
+            if (candidate != null) {
+                if (isHealthy(candidate)) {
+                    hits.incrementAndGet();
+                    long waited = recordLeaseWait(start);
+                    recordPrewarmSaving(candidate, waited);
+                    return candidate;
+                }
+                prewarmCostMs.remove(candidate);
+                discard(candidate);
+                prewarm();
+                continue;
+            }
+
+            if (reserveSlot()) {
+                try {
+                    AppiumDriver fresh = factory.get();
+                    misses.incrementAndGet();
+                    recordLeaseWait(start);
+                    return fresh;
+                } catch (RuntimeException e) {
+                    created.decrementAndGet();
+                    throw e;
+                }
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IllegalStateException("Timed out after " + leaseTimeoutMs
+                        + "ms waiting for a " + platform + " session (pool size " + maxSize + ")");
+            }
+            try {
+                candidate = idle.pollFirst(remaining, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a " + platform + " session", e);
+            }
+            if (candidate != null) {
+                idle.offerFirst(candidate);
+            }
+        }
+    }
+
+    /**
+     * Return a session to the pool, resetting app state first. Sessions that
+     * cannot be reset or are marked broken are quit instead of being reused.
+     */
+    public void release(AppiumDriver driver, boolean broken) {
+        if (driver == null) {
+            return;
+        }
+        if (broken) {
+            discard(driver);
+            prewarm();
+            return;
+        }
+        if (!runInBackground(() -> recycle(driver))) {
+            recycle(driver);
+        }
+    }
+
+    /**
+     * Start creating a session in the background if the pool has room for one,
+     * so the next lease becomes a handoff instead of a full session start
+     */
+    public void prewarm() {
+        if (prewarmExecutor == null || !reserveSlot()) {
+            return;
+        }
+        boolean started = runInBackground(() -> {
+            long createStart = System.currentTimeMillis();
+            try {
+                AppiumDriver fresh = factory.get();
+                prewarmCostMs.put(fresh, System.currentTimeMillis() - createStart);
+                prewarmed.incrementAndGet();
+                idle.offerLast(fresh);
+            } catch (RuntimeException e) {
+                created.decrementAndGet();
+                LogUtils.warn("Background session creation failed for " + platform + ": " + e.getMessage());
+            }
+        });
+        if (!started) {
+            created.decrementAndGet();
+        }
+    }
+
+    /**
+     * Quit every idle session. Leased sessions are quit when they are released.
+     */
+    public void shutdown() {
+        if (prewarmExecutor != null) {
+            prewarmExecutor.shutdown();
+            try {
+                if (!prewarmExecutor.awaitTermination(leaseTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    LogUtils.warn("Background session work for " + platform + " did not finish before shutdown");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        prewarmCostMs.clear();
+        List<AppiumDriver> drained = new ArrayList<>();
+        idle.drainTo(drained);
+        drained.forEach(this::discard);
+        LogUtils.info("Driver pool for " + platform + " shut down - " + getStats());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getDiscarded() {
+        return discarded.get();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    public long getAverageLeaseWaitMs() {
+        long count = leases.get();
+        return count == 0 ? 0 : totalLeaseWaitMs.get() / count;
+    }
+
+    public long getMaxLeaseWaitMs() {
+        return maxLeaseWaitMs.get();
+    }
+
+    public long getTotalPrewarmSavedMs() {
+        return totalPrewarmSavedMs.get();
+    }
+
+    public String getStats() {
+        return "hits=" + hits.get()
+                + ", misses=" + misses.get()
+                + ", discarded=" + discarded.get()
+                + ", prewarmed=" + prewarmed.get()
+                + ", live=" + created.get()
+                + ", idle=" + idle.size()
+                + ", avgLeaseWait=" + getAverageLeaseWaitMs() + "ms"
+                + ", maxLeaseWait=" + maxLeaseWaitMs.get() + "ms"
+                + ", prewarmSaved=" + totalPrewarmSavedMs.get() + "ms";
+    }
+
+    private void recycle(AppiumDriver driver) {
+        long resetStart = System.currentTimeMillis();
+        if (!reset(driver)) {
+            discard(driver);
+            prewarm();
+            return;
+        }
+        if (prewarmExecutor != null) {
+            prewarmCostMs.put(driver, System.currentTimeMillis() - resetStart);
+        }
+        idle.offerLast(driver);
+    }
+
+    private boolean runInBackground(Runnable task) {
+        if (prewarmExecutor == null || prewarmExecutor.isShutdown() || !prewarmSlots.tryAcquire()) {
+            return false;
+        }
+        prewarmExecutor.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                prewarmSlots.release();
+            }
+        });
+        return true;
+    }
+
+    private void recordPrewarmSaving(AppiumDriver driver, long waitedMs) {
+        Long costMs = prewarmCostMs.remove(driver);
+        if (costMs == null) {
+            return;
+        }
+        long savedMs = Math.max(0, costMs - waitedMs);
+        totalPrewarmSavedMs.addAndGet(savedMs);
+        LogUtils.performance("Session pre-warm saved (" + platform + ")", savedMs);
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = created.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (created.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean isHealthy(AppiumDriver driver) {
+        try {
+            return driver.getSessionId() != null && healthCheck.test(driver);
+        } catch (Exception e) {
+            LogUtils.warn("Pooled session failed health check: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean reset(AppiumDriver driver) {
+        try {
+            return resetter.test(driver);
+        } catch (Exception e) {
+            LogUtils.warn("Failed to reset pooled session, discarding it: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void discard(AppiumDriver driver) {
+        discarded.incrementAndGet();
+        created.decrementAndGet();
+        FrameRecorder.stop(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LogUtils.debug(LogCategory.NETWORK, "Ignoring error while quitting discarded session: {}", e.getMessage());
+        }
+    }
+
+    private long recordLeaseWait(long start) {
+        long waited = System.currentTimeMillis() - start;
+        leases.incrementAndGet();
+        totalLeaseWaitMs.addAndGet(waited);
+        maxLeaseWaitMs.accumulateAndGet(waited, Math::max);
+        return waited;
+    }
+}
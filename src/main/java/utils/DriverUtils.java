@@ -1,44 +1,240 @@
 package utils;
 
 import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.MobileCommand;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
 import org.openqa.selenium.remote.DesiredCapabilities;
 import java.net.URL;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DriverUtils {
     private static final ThreadLocal<AppiumDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<DriverPool> leasedFrom = new ThreadLocal<>();
+    private static final ThreadLocal<Long> leaseId = new ThreadLocal<>();
+    private static final AtomicLong leaseCounter = new AtomicLong();
+    private static final Map<String, DriverPool> pools = new ConcurrentHashMap<>();
     private static final ConfigManager config = ConfigManager.getInstance();
     
     public static void initializeDriver(String platform) {
+        Map<String, Object> device = DeviceAllocator.acquire(platform, getDeviceAcquireTimeoutMs(platform));
         try {
-            AppiumDriver appiumDriver = createDriver(platform);
+            AppiumDriver appiumDriver = createDriver(platform, device);
             setTimeouts(appiumDriver, platform);
             driver.set(appiumDriver);
+            leaseId.set(leaseCounter.incrementAndGet());
+            PageSnapshot.invalidate();
+            NumpadLayout.invalidate();
+            FrameRecorder.startFor(appiumDriver, platform);
         } catch (Exception e) {
+            DeviceAllocator.release();
             throw new RuntimeException("Failed to initialize driver for platform: " + platform, e);
         }
     }
     
-    private static AppiumDriver createDriver(String platform) throws Exception {
-        String serverUrl = config.getServerUrl(platform);
-        Map<String, Object> capabilities = config.getDeviceCapabilities(platform);
+    public static void leaseDriver(String platform) {
+        if (!isPoolingEnabled(platform)) {
+            initializeDriver(platform);
+            return;
+        }
+        
+        Map<String, Object> device = DeviceAllocator.acquire(platform, getDeviceAcquireTimeoutMs(platform));
+        String poolKey = platform.toLowerCase() + ":" + DeviceAllocator.getDeviceId(device);
+        DriverPool pool = pools.computeIfAbsent(poolKey, key -> createPool(platform, key, device));
+        long leaseStart = System.currentTimeMillis();
+        long hitsBefore = pool.getHits();
+        AppiumDriver appiumDriver;
+        try {
+            appiumDriver = pool.lease();
+        } catch (RuntimeException e) {
+            DeviceAllocator.release();
+            throw e;
+        }
+        long leaseTime = System.currentTimeMillis() - leaseStart;
+        
+        driver.set(appiumDriver);
+        leasedFrom.set(pool);
+        leaseId.set(leaseCounter.incrementAndGet());
+        PageSnapshot.invalidate();
+        NumpadLayout.invalidate();
+        FrameRecorder.startFor(appiumDriver, platform);
+        LogUtils.performance("Driver lease (" + (pool.getHits() > hitsBefore ? "pool hit" : "pool miss") + ")", leaseTime);
+    }
+    
+    public static void releaseDriver() {
+        releaseDriver(false);
+    }
+    
+    public static void releaseDriver(boolean broken) {
+        DriverPool pool = leasedFrom.get();
+        if (pool == null) {
+            quitDriver();
+            return;
+        }
+        
+        AppiumDriver currentDriver = driver.get();
+        driver.remove();
+        leasedFrom.remove();
+        leaseId.remove();
+        PageSnapshot.invalidate();
+        NumpadLayout.invalidate();
+        
+        if (broken) {
+            FrameRecorder.stop(currentDriver);
+        }
+        long releaseStart = System.currentTimeMillis();
+        try {
+            pool.release(currentDriver, broken);
+        } finally {
+            DeviceAllocator.release();
+        }
+        LogUtils.performance("Driver release", System.currentTimeMillis() - releaseStart);
+    }
+    
+    public static void shutdownPools() {
+        pools.values().forEach(DriverPool::shutdown);
+        pools.clear();
+        FrameRecorder.stopAll();
+    }
+    
+    public static String getPoolStats(String platform) {
+        StringBuilder stats = new StringBuilder();
+        pools.forEach((key, pool) -> {
+            if (key.startsWith(platform.toLowerCase() + ":")) {
+                stats.append(stats.length() > 0 ? "; " : "").append(key).append(" [").append(pool.getStats()).append("]");
+            }
+        });
+        return stats.length() > 0 ? stats.toString() : "pool not started";
+    }
+    
+    public static boolean isPoolingEnabled(String platform) {
+        Object enabled = config.getPoolConfig(platform).get("enabled");
+        return enabled != null && Boolean.parseBoolean(enabled.toString());
+    }
+    
+    private static DriverPool createPool(String platform, String poolKey, Map<String, Object> device) {
+        Map<String, Object> poolConfig = config.getPoolConfig(platform);
+        int maxSize = getIntValue(poolConfig, "maxSize", 1);
+        long leaseTimeoutMs = getIntValue(poolConfig, "leaseTimeout", 120) * 1000L;
+        int maxInFlight = getIntValue(poolConfig, "maxInFlight", 0);
+        
+        LogUtils.config("Driver pool for " + poolKey, "maxSize=" + maxSize + ", leaseTimeout=" + leaseTimeoutMs
+                + "ms, maxInFlight=" + maxInFlight);
+        return new DriverPool(poolKey, maxSize, leaseTimeoutMs, maxInFlight,
+                () -> {
+                    try {
+                        AppiumDriver appiumDriver = createDriver(platform, device);
+                        setTimeouts(appiumDriver, platform);
+                        return appiumDriver;
+                    } catch (Exception e) {
+                        throw new RuntimeException("Failed to create pooled driver for platform: " + platform, e);
+                    }
+                },
+                DriverUtils::isSessionResponsive,
+                pooledDriver -> resetAppState(pooledDriver, platform));
+    }
+    
+    static boolean isSessionResponsive(AppiumDriver appiumDriver) {
+        return appiumDriver.manage().timeouts().getImplicitWaitTimeout() != null;
+    }
+    
+    public static void clearAppState(String platform) {
+        boolean cleared;
+        try {
+            cleared = resetAppState(getDriver(), platform);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to clear app state: " + e.getMessage(), e);
+        }
+        if (!cleared) {
+            throw new RuntimeException("Failed to clear app state: no app.path configured to reinstall the " + platform + " app");
+        }
+    }
+    
+    public static String getAppId(String platform) {
+        if ("ios".equalsIgnoreCase(platform)) {
+            return (String) config.getDeviceCapabilities(platform).get("bundleId");
+        }
+        return config.getAppPackage(platform);
+    }
+    
+    /**
+     * Bring the app back to the state of a fresh session: no data and, on Android,
+     * the runtime permissions autoGrantPermissions gives at install. iOS has no
+     * way to clear app data in place, so the app is reinstalled from app.path.
+     *
+     * @return false when the app cannot be reset because iOS has no app.path to reinstall from
+     */
+    static boolean resetAppState(AppiumDriver appiumDriver, String platform) {
+        if (appiumDriver instanceof AndroidDriver) {
+            String appPackage = getAppId(platform);
+            AndroidDriver androidDriver = (AndroidDriver) appiumDriver;
+            androidDriver.terminateApp(appPackage);
+            androidDriver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+            if (Boolean.parseBoolean(String.valueOf(config.getDeviceCapabilities(platform).get("autoGrantPermissions")))) {
+                androidDriver.executeScript("mobile: changePermissions",
+                        Map.of("permissions", "all", "appPackage", appPackage, "action", "grant"));
+            }
+            androidDriver.activateApp(appPackage);
+        } else if (appiumDriver instanceof IOSDriver) {
+            String appPath = getInstallableAppPath(platform);
+            if (appPath == null) {
+                LogUtils.info("No app.path for " + platform + ", the session cannot be reset and is not reused");
+                return false;
+            }
+            String bundleId = getAppId(platform);
+            IOSDriver iosDriver = (IOSDriver) appiumDriver;
+            iosDriver.terminateApp(bundleId);
+            iosDriver.executeScript("mobile: removeApp", Map.of("bundleId", bundleId));
+            iosDriver.executeScript("mobile: installApp", Map.of("app", appPath));
+            iosDriver.activateApp(bundleId);
+        }
+        return true;
+    }
+    
+    /**
+     * Absolute path of the configured app binary, or null when the platform has none
+     */
+    private static String getInstallableAppPath(String platform) {
+        String appPath;
+        try {
+            appPath = config.getAppPath(platform);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return appPath == null || appPath.isEmpty() ? null : System.getProperty("user.dir") + "/" + appPath;
+    }
+    
+    private static long getDeviceAcquireTimeoutMs(String platform) {
+        return getIntValue(config.getPoolConfig(platform), "leaseTimeout", 120) * 1000L;
+    }
+    
+    private static int getIntValue(Map<String, Object> values, String key, int defaultValue) {
+        Object value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Integer ? (Integer) value : Integer.parseInt(value.toString());
+    }
+    
+    private static AppiumDriver createDriver(String platform, Map<String, Object> capabilities) throws Exception {
+        String serverUrl = System.getProperty("appium.server.url", config.getServerUrl(platform));
         
         DesiredCapabilities caps = new DesiredCapabilities();
         capabilities.forEach(caps::setCapability);
         
-        String appPath = config.getAppPath(platform);
-        if (appPath != null && !appPath.isEmpty()) {
-            caps.setCapability("app", System.getProperty("user.dir") + "/" + appPath);
+        String appPath = getInstallableAppPath(platform);
+        if (appPath != null) {
+            caps.setCapability("app", appPath);
         }
         
         switch (platform.toLowerCase()) {
             case "android":
-                return new AndroidDriver(new URL(serverUrl), caps);
+                return new AndroidDriver(new InstrumentedCommandExecutor(MobileCommand.commandRepository, new URL(serverUrl)), caps);
             case "ios":
-                return new IOSDriver(new URL(serverUrl), caps);
+                return new IOSDriver(new InstrumentedCommandExecutor(MobileCommand.commandRepository, new URL(serverUrl)), caps);
             default:
                 throw new IllegalArgumentException("Unsupported platform: " + platform);
         }
@@ -65,11 +261,41 @@ public class DriverUtils {
     }
     
     public static void quitDriver() {
+        if (leasedFrom.get() != null) {
+            releaseDriver(true);
+            return;
+        }
+        
         AppiumDriver currentDriver = driver.get();
         if (currentDriver != null) {
-            currentDriver.quit();
-            driver.remove();
+            FrameRecorder.stop(currentDriver);
+            try {
+                currentDriver.quit();
+            } finally {
+                driver.remove();
+                leaseId.remove();
+                PageSnapshot.invalidate();
+                NumpadLayout.invalidate();
+                DeviceAllocator.release();
+            }
+        }
+    }
+    
+    public static String getWaitStrategyStats() {
+        AppiumDriver currentDriver = driver.get();
+        if (currentDriver != null && currentDriver.getCommandExecutor() instanceof InstrumentedCommandExecutor) {
+            return ((InstrumentedCommandExecutor) currentDriver.getCommandExecutor()).getWaitStrategy().getStats();
         }
+        return "not available";
+    }
+    
+    /**
+     * Identifies the calling thread's current lease; changes every time a session
+     * is leased or created, even when the pool hands out the same driver again
+     */
+    public static long getLeaseId() {
+        Long id = leaseId.get();
+        return id != null ? id : 0;
     }
     
     public static boolean isDriverInitialized() {
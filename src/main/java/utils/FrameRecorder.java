@@ -0,0 +1,334 @@
+package utils;
+
+import io.appium.java_client.AppiumDriver;
+import io.qameta.allure.Allure;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last few seconds of a session's MJPEG screen stream in memory so a
+ * failure can be shown as it happened instead of with a screenshot taken after
+ * the fact. One daemon thread per session reads the stream exposed on the
+ * session's mjpegServerPort and copies sampled frames into fixed-size slots of
+ * a single direct buffer, overwriting the oldest frame when it is full.
+ */
+public class FrameRecorder {
+    private static final int READ_CHUNK = 16 * 1024;
+    private static final long RECONNECT_DELAY_MS = 1000;
+    private static final int READ_TIMEOUT_MS = 2000;
+    private static final int CLIP_MAX_WIDTH = 360;
+    private static final Map<String, FrameRecorder> recorders = new ConcurrentHashMap<>();
+
+    private final String sessionId;
+    private final URL streamUrl;
+    private final long minFrameIntervalMs;
+    private final int slotSize;
+    private final ByteBuffer frames;
+    private final int[] lengths;
+    private final long[] timestamps;
+    private final Thread reader;
+    private long written;
+    private long oversizedFrames;
+    private volatile boolean stopped;
+
+    FrameRecorder(String sessionId, URL streamUrl, int seconds, int fps, int maxFrameKb) {
+        int slots = Math.max(1, seconds * fps);
+        this.sessionId = sessionId;
+        this.streamUrl = streamUrl;
+        this.minFrameIntervalMs = 1000L / Math.max(1, fps);
+        this.slotSize = maxFrameKb * 1024;
+        this.frames = ByteBuffer.allocateDirect(slots * slotSize);
+        this.lengths = new int[slots];
+        this.timestamps = new long[slots];
+        this.reader = new Thread(this::readLoop, "frame-recorder-" + sessionId);
+        reader.setDaemon(true);
+    }
+
+    /**
+     * Start recording the driver's session if the recorder is enabled and the
+     * session exposes an MJPEG port; does nothing when it is already recording
+     */
+    public static void startFor(AppiumDriver driver, String platform) {
+        Map<String, Object> config = ConfigManager.getInstance().getRecorderConfig(platform);
+        if (!Boolean.parseBoolean(String.valueOf(config.getOrDefault("enabled", false)))) {
+            return;
+        }
+        String sessionId = String.valueOf(driver.getSessionId());
+        if (recorders.containsKey(sessionId)) {
+            return;
+        }
+
+        Object port = driver.getCapabilities().getCapability("mjpegServerPort");
+        if (port == null) {
+            port = driver.getCapabilities().getCapability("appium:mjpegServerPort");
+        }
+        if (port == null) {
+            LogUtils.debug(LogCategory.NETWORK, "No mjpegServerPort on session {}, frame recording disabled", sessionId);
+            return;
+        }
+
+        try {
+            String serverUrl = System.getProperty("appium.server.url", ConfigManager.getInstance().getServerUrl(platform));
+            URL streamUrl = new URL("http", new URL(serverUrl).getHost(), Integer.parseInt(port.toString()),
+                    String.valueOf(config.getOrDefault("streamPath", "/")));
+            FrameRecorder recorder = new FrameRecorder(sessionId, streamUrl,
+                    getIntValue(config, "seconds", 10), getIntValue(config, "fps", 4), getIntValue(config, "maxFrameKb", 256));
+            if (recorders.putIfAbsent(sessionId, recorder) == null) {
+                recorder.start();
+                LogUtils.config("Frame recorder for session " + sessionId, streamUrl.toString());
+            }
+        } catch (IOException | RuntimeException e) {
+            LogUtils.warn("Failed to start frame recorder: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Attach the recorded frames of the driver's session to the current Allure
+     * test as a clip plus the most recent frame
+     *
+     * @return false when there is no recording for the session or it has no frames
+     */
+    public static boolean attachRecording(AppiumDriver driver, String name) {
+        FrameRecorder recorder = recorders.get(String.valueOf(driver.getSessionId()));
+        if (recorder == null) {
+            return false;
+        }
+        List<byte[]> snapshot = recorder.snapshotFrames();
+        if (snapshot.isEmpty()) {
+            return false;
+        }
+
+        Allure.addAttachment(name + " (last frame)", "image/jpeg",
+                new ByteArrayInputStream(snapshot.get(snapshot.size() - 1)), ".jpg");
+        try {
+            byte[] clip = encodeClip(snapshot, (int) (recorder.minFrameIntervalMs / 10));
+            Allure.addAttachment(name + " (last " + snapshot.size() + " frames)", "image/gif",
+                    new ByteArrayInputStream(clip), ".gif");
+        } catch (IOException | RuntimeException e) {
+            LogUtils.warn("Failed to encode frame clip: " + e.getMessage());
+        }
+        return true;
+    }
+
+    public static void stop(AppiumDriver driver) {
+        FrameRecorder recorder = recorders.remove(String.valueOf(driver.getSessionId()));
+        if (recorder != null) {
+            recorder.stop();
+        }
+    }
+
+    public static void stopAll() {
+        recorders.values().forEach(FrameRecorder::stop);
+        recorders.clear();
+    }
+
+    void start() {
+        reader.start();
+    }
+
+    /**
+     * Stop the reader thread without waiting for it; a read blocked on a stalled
+     * stream returns within the read timeout
+     */
+    void stop() {
+        stopped = true;
+        reader.interrupt();
+        LogUtils.debug(LogCategory.NETWORK, () -> "Frame recorder for session " + sessionId + " stopped: " + getStats());
+    }
+
+    /**
+     * Copies of the buffered frames, oldest first
+     */
+    synchronized List<byte[]> snapshotFrames() {
+        int slots = lengths.length;
+        long first = Math.max(0, written - slots);
+        List<byte[]> copies = new ArrayList<>((int) (written - first));
+        for (long sequence = first; sequence < written; sequence++) {
+            int slot = (int) (sequence % slots);
+            byte[] copy = new byte[lengths[slot]];
+            frames.get(slot * slotSize, copy);
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    boolean isRunning() {
+        return reader.isAlive();
+    }
+
+    synchronized String getStats() {
+        return "frames=" + written + ", oversized=" + oversizedFrames;
+    }
+
+    private synchronized void store(byte[] frame, int length, long timestamp) {
+        if (length > slotSize) {
+            oversizedFrames++;
+            return;
+        }
+        int slot = (int) (written % lengths.length);
+        frames.put(slot * slotSize, frame, 0, length);
+        lengths[slot] = length;
+        timestamps[slot] = timestamp;
+        written++;
+    }
+
+    private synchronized long lastTimestamp() {
+        return written == 0 ? 0 : timestamps[(int) ((written - 1) % lengths.length)];
+    }
+
+    private void readLoop() {
+        while (!stopped) {
+            HttpURLConnection connection = null;
+            try {
+                connection = (HttpURLConnection) streamUrl.openConnection();
+                connection.setConnectTimeout(5000);
+                connection.setReadTimeout(READ_TIMEOUT_MS);
+                try (InputStream stream = connection.getInputStream()) {
+                    readFrames(stream);
+                }
+            } catch (IOException e) {
+                LogUtils.debug(LogCategory.NETWORK, "MJPEG stream for {} interrupted: {}", sessionId, e.getMessage());
+            } finally {
+                if (connection != null) {
+                    connection.disconnect();
+                }
+            }
+            if (!stopped) {
+                sleepBeforeReconnect();
+            }
+        }
+    }
+
+    /**
+     * Splits the multipart stream into JPEG images on the start and end of image
+     * markers, which works whatever part headers the server sends
+     */
+    private void readFrames(InputStream stream) throws IOException {
+        byte[] chunk = new byte[READ_CHUNK];
+        byte[] frame = new byte[slotSize];
+        int frameLength = 0;
+        boolean inFrame = false;
+        boolean overflow = false;
+        int previous = -1;
+
+        int read;
+        while (!stopped && (read = stream.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                int current = chunk[i] & 0xFF;
+                if (!inFrame) {
+                    if (previous == 0xFF && current == 0xD8) {
+                        inFrame = true;
+                        overflow = false;
+                        frame[0] = (byte) 0xFF;
+                        frame[1] = (byte) 0xD8;
+                        frameLength = 2;
+                    }
+                } else {
+                    if (frameLength < frame.length) {
+                        frame[frameLength++] = (byte) current;
+                    } else {
+                        overflow = true;
+                    }
+                    if (previous == 0xFF && current == 0xD9) {
+                        inFrame = false;
+                        long now = System.currentTimeMillis();
+                        if (overflow) {
+                            store(frame, slotSize + 1, now);
+                        } else if (now - lastTimestamp() >= minFrameIntervalMs) {
+                            store(frame, frameLength, now);
+                        }
+                        current = -1;
+                    }
+                }
+                previous = current;
+            }
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+        }
+    }
+
+    /**
+     * Animated GIF of the frames, scaled down and played back at the sampling rate
+     */
+    private static byte[] encodeClip(List<byte[]> jpegs, int delayCentis) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream clip = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(clip)) {
+            writer.setOutput(output);
+            writer.prepareWriteSequence(null);
+            for (byte[] jpeg : jpegs) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(jpeg));
+                if (image == null) {
+                    continue;
+                }
+                BufferedImage scaled = scaleDown(image);
+                IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(scaled), null);
+                String format = metadata.getNativeMetadataFormatName();
+                IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+                IIOMetadataNode control = new IIOMetadataNode("GraphicControlExtension");
+                control.setAttribute("disposalMethod", "none");
+                control.setAttribute("userInputFlag", "FALSE");
+                control.setAttribute("transparentColorFlag", "FALSE");
+                control.setAttribute("delayTime", String.valueOf(Math.max(1, delayCentis)));
+                control.setAttribute("transparentColorIndex", "0");
+                Node existing = root.getElementsByTagName("GraphicControlExtension").item(0);
+                if (existing != null) {
+                    root.removeChild(existing);
+                }
+                root.appendChild(control);
+                metadata.setFromTree(format, root);
+                writer.writeToSequence(new IIOImage(scaled, null, metadata), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return clip.toByteArray();
+    }
+
+    private static BufferedImage scaleDown(BufferedImage image) {
+        if (image.getWidth() <= CLIP_MAX_WIDTH) {
+            return image;
+        }
+        int height = image.getHeight() * CLIP_MAX_WIDTH / image.getWidth();
+        BufferedImage scaled = new BufferedImage(CLIP_MAX_WIDTH, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, CLIP_MAX_WIDTH, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private static int getIntValue(Map<String, Object> values, String key, int defaultValue) {
+        Object value = values.get(key);
+        return value != null ? Integer.parseInt(value.toString()) : defaultValue;
+    }
+}
@@ -0,0 +1,64 @@
+package utils;
+
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandInfo;
+import org.openqa.selenium.remote.Response;
+
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Command executor that times every command sent to the Appium server and
+ * records it in {@link CommandMetrics}. It also keeps the session's implicit
+ * wait in line with {@link WaitStrategyManager} and drops the thread's
+ * {@link PageSnapshot} whenever a command may change the UI.
+ */
+public class InstrumentedCommandExecutor extends AppiumCommandExecutor {
+    private final WaitStrategyManager waitStrategy = new WaitStrategyManager();
+
+    public InstrumentedCommandExecutor(Map<String, CommandInfo> additionalCommands, URL addressOfRemoteServer) {
+        super(additionalCommands, addressOfRemoteServer);
+    }
+
+    @Override
+    public Response execute(Command command) throws WebDriverException {
+        PageSnapshot.onCommand(command.getName());
+        Command implicitWaitSync = waitStrategy.beforeCommand(command);
+        if (implicitWaitSync != null) {
+            try {
+                executeTimed(implicitWaitSync);
+            } catch (RuntimeException e) {
+                waitStrategy.invalidate();
+                throw e;
+            }
+        }
+        return executeTimed(command);
+    }
+
+    public WaitStrategyManager getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    private Response executeTimed(Command command) {
+        long start = System.nanoTime();
+        boolean success = false;
+        Response response = null;
+        try {
+            response = super.execute(command);
+            success = true;
+            return response;
+        } finally {
+            long latency = System.nanoTime() - start;
+            Object value = response != null ? response.getValue() : null;
+            long payloadBytes = value instanceof String ? ((String) value).length() : 0;
+            CommandMetrics.record(command.getName(), getStrategy(command), latency, payloadBytes, success);
+        }
+    }
+
+    private static String getStrategy(Command command) {
+        Object using = command.getParameters().get("using");
+        return using != null ? using.toString() : null;
+    }
+}
@@ -0,0 +1,96 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram. Values are recorded
+ * in microseconds with roughly two significant digits of precision. Instances are
+ * not synchronized; each recording thread owns its own histogram and the
+ * snapshots are merged when they are reported.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int MAX_SHIFT = 40;
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + MAX_SHIFT * SUB_BUCKET_HALF;
+    private static final long MAX_VALUE = (1L << (MAX_SHIFT + SUB_BUCKET_BITS)) - 1;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long totalValue;
+    private long maxValue;
+
+    public void record(long valueMicros) {
+        long value = Math.min(Math.max(valueMicros, 0), MAX_VALUE);
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalValue += value;
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalValue += other.totalValue;
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalValue = 0;
+        maxValue = 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public long getMean() {
+        return totalCount == 0 ? 0 : totalValue / totalCount;
+    }
+
+    /**
+     * Value at the given percentile (0-100), reported as the upper bound of its bucket
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueAt(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (int) ((value >> shift) - SUB_BUCKET_HALF);
+    }
+
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
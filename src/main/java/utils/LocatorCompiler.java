@@ -0,0 +1,221 @@
+package utils;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites common XPath locators into native strategies when a page class is
+ * loaded: UiSelector for Android widgets, predicate strings for iOS elements.
+ * Supported shapes are an element type (or *) followed by attribute equals or
+ * contains predicates. Anything else stays XPath and is reported so it can be
+ * rewritten by hand. Set -Dlocator.compile=false to keep every locator as XPath.
+ */
+public class LocatorCompiler {
+    private static final Pattern XPATH_SHAPE = Pattern.compile("^//([\\w.*]+)((?:\\[[^\\[\\]]+\\])+)$");
+    private static final Pattern PREDICATE_BLOCK = Pattern.compile("\\[([^\\[\\]]+)\\]");
+    private static final Pattern EQUALS = Pattern.compile("^@([\\w-]+)\\s*=\\s*'([^']*)'$");
+    private static final Pattern CONTAINS = Pattern.compile("^contains\\(\\s*@([\\w-]+)\\s*,\\s*'([^']*)'\\s*\\)$");
+
+    private static final Map<String, By> compiled = new ConcurrentHashMap<>();
+    private static final Set<String> untranslated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Native locator equivalent to the XPath, or the XPath itself when it cannot be translated
+     */
+    public static By xpath(String xpath) {
+        if (!Boolean.parseBoolean(System.getProperty("locator.compile", "true"))) {
+            return By.xpath(xpath);
+        }
+        return compiled.computeIfAbsent(xpath, LocatorCompiler::compile);
+    }
+
+    /**
+     * XPath locators that had to be kept as XPath, sorted
+     */
+    public static Set<String> getUntranslatedLocators() {
+        return Collections.unmodifiableSet(new TreeSet<>(untranslated));
+    }
+
+    public static String getReport() {
+        Set<String> remaining = getUntranslatedLocators();
+        StringBuilder report = new StringBuilder()
+                .append(compiled.size() - remaining.size()).append(" XPath locators compiled to native, ")
+                .append(remaining.size()).append(" kept as XPath");
+        remaining.forEach(xpath -> report.append("\n  ").append(xpath));
+        return report.toString();
+    }
+
+    private static By compile(String xpath) {
+        By nativeLocator = translate(xpath);
+        if (nativeLocator == null) {
+            untranslated.add(xpath);
+            LogUtils.warn("Locator kept as XPath: " + xpath);
+            return By.xpath(xpath);
+        }
+        LogUtils.debug(LogCategory.ELEMENT, "Compiled {} -> {}", xpath, nativeLocator);
+        return new CompiledLocator(xpath, nativeLocator);
+    }
+
+    private static By translate(String xpath) {
+        Matcher shape = XPATH_SHAPE.matcher(xpath.trim());
+        if (!shape.matches()) {
+            return null;
+        }
+
+        String type = shape.group(1);
+        List<String[]> conditions = parseConditions(shape.group(2));
+        if (conditions == null) {
+            return null;
+        }
+
+        if (type.startsWith("XCUIElementType")) {
+            return toIosPredicate(type, conditions);
+        }
+        if (type.startsWith("android.") || ("*".equals(type) && !conditions.isEmpty())) {
+            return toUiSelector(type, conditions);
+        }
+        return null;
+    }
+
+    /**
+     * Each condition is {attribute, value, "equals" or "contains"}; null when any part is unsupported
+     */
+    private static List<String[]> parseConditions(String blocks) {
+        List<String[]> conditions = new ArrayList<>();
+        Matcher block = PREDICATE_BLOCK.matcher(blocks);
+        while (block.find()) {
+            for (String part : block.group(1).split("\\s+and\\s+")) {
+                String condition = part.trim();
+                Matcher equals = EQUALS.matcher(condition);
+                Matcher contains = CONTAINS.matcher(condition);
+                if (equals.matches()) {
+                    conditions.add(new String[] {equals.group(1), equals.group(2), "equals"});
+                } else if (contains.matches()) {
+                    conditions.add(new String[] {contains.group(1), contains.group(2), "contains"});
+                } else {
+                    return null;
+                }
+            }
+        }
+        return conditions;
+    }
+
+    private static By toUiSelector(String type, List<String[]> conditions) {
+        StringBuilder selector = new StringBuilder("new UiSelector()");
+        if (!"*".equals(type)) {
+            selector.append(".className(").append(quote(type)).append(')');
+        }
+
+        for (String[] condition : conditions) {
+            boolean contains = "contains".equals(condition[2]);
+            String method;
+            switch (condition[0]) {
+                case "text":
+                    method = contains ? "textContains" : "text";
+                    break;
+                case "content-desc":
+                    method = contains ? "descriptionContains" : "description";
+                    break;
+                case "resource-id":
+                    method = contains ? null : "resourceId";
+                    break;
+                case "class":
+                    method = contains ? null : "className";
+                    break;
+                default:
+                    method = null;
+            }
+            if (method == null) {
+                return null;
+            }
+            selector.append('.').append(method).append('(').append(quote(condition[1])).append(')');
+        }
+        return AppiumBy.androidUIAutomator(selector.toString());
+    }
+
+    private static By toIosPredicate(String type, List<String[]> conditions) {
+        StringBuilder predicate = new StringBuilder("type == ").append(singleQuote(type));
+        for (String[] condition : conditions) {
+            String attribute = condition[0];
+            if (!attribute.equals("name") && !attribute.equals("label") && !attribute.equals("value")) {
+                return null;
+            }
+            predicate.append(" AND ").append(attribute)
+                    .append("contains".equals(condition[2]) ? " CONTAINS " : " == ")
+                    .append(singleQuote(condition[1]));
+        }
+        return AppiumBy.iOSNsPredicateString(predicate.toString());
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static String singleQuote(String value) {
+        return '\'' + value.replace("\\", "\\\\").replace("'", "\\'") + '\'';
+    }
+
+    /**
+     * Native locator that remembers the XPath it was compiled from, so local
+     * lookups such as {@link PageSnapshot} can still evaluate it
+     */
+    public static class CompiledLocator extends By implements By.Remotable {
+        private final String xpath;
+        private final By nativeLocator;
+
+        private CompiledLocator(String xpath, By nativeLocator) {
+            this.xpath = xpath;
+            this.nativeLocator = nativeLocator;
+        }
+
+        public String getXpath() {
+            return xpath;
+        }
+
+        public By getNativeLocator() {
+            return nativeLocator;
+        }
+
+        @Override
+        public WebElement findElement(SearchContext context) {
+            return nativeLocator.findElement(context);
+        }
+
+        @Override
+        public List<WebElement> findElements(SearchContext context) {
+            return nativeLocator.findElements(context);
+        }
+
+        @Override
+        public Parameters getRemoteParameters() {
+            return ((By.Remotable) nativeLocator).getRemoteParameters();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof CompiledLocator && xpath.equals(((CompiledLocator) other).xpath);
+        }
+
+        @Override
+        public int hashCode() {
+            return xpath.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return nativeLocator + " (from By.xpath: " + xpath + ")";
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package utils;
+
+/**
+ * Log categories whose level can be set independently, e.g. -Dlog.level.element=debug
+ */
+public enum LogCategory {
+    GENERAL,
+    ELEMENT,
+    DATA,
+    NETWORK,
+    PERFORMANCE
+}
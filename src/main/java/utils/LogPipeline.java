@@ -0,0 +1,157 @@
+package utils;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer ring buffer that moves log4j and console output off the
+ * calling thread. Producers claim a preallocated slot with a CAS and fill it in
+ * place; a single daemon consumer writes events in order. When the buffer is full
+ * the producer either waits for space or drops the event, depending on the
+ * overflow policy. {@link #flush()} blocks until everything published so far
+ * has been written.
+ */
+class LogPipeline {
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+    private static final long FULL_PARK_NANOS = 50_000;
+    private static final long FLUSH_TIMEOUT_NANOS = 5_000_000_000L;
+
+    private final Logger logger;
+    private final Event[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final boolean dropWhenFull;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread consumer;
+
+    LogPipeline(Logger logger, int capacity, boolean dropWhenFull) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.logger = logger;
+        this.slots = new Event[size];
+        this.published = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.dropWhenFull = dropWhenFull;
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Event();
+            published.set(i, -1);
+        }
+
+        consumer = new Thread(this::consume, "log-pipeline");
+        consumer.setDaemon(true);
+        consumer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-pipeline-flush"));
+    }
+
+    /**
+     * Queue an event; events that must not be lost wait for space even under the drop policy
+     */
+    void publish(Level level, String logMessage, String consoleLine, boolean toStderr, Throwable throwable) {
+        long sequence = claim(level.isMoreSpecificThan(Level.ERROR));
+        if (sequence < 0) {
+            return;
+        }
+        Event event = slots[(int) (sequence & mask)];
+        event.level = level;
+        event.logMessage = logMessage;
+        event.consoleLine = consoleLine;
+        event.toStderr = toStderr;
+        event.throwable = throwable;
+        published.lazySet((int) (sequence & mask), sequence);
+    }
+
+    /**
+     * Wait until every event published before this call has been written
+     */
+    void flush() {
+        if (Thread.currentThread() == consumer) {
+            return;
+        }
+        long target = tail.get();
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT_NANOS;
+        while (head.get() < target && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    long getPendingCount() {
+        return tail.get() - head.get();
+    }
+
+    private long claim(boolean mustDeliver) {
+        while (true) {
+            long current = tail.get();
+            if (current - head.get() >= slots.length) {
+                if (dropWhenFull && !mustDeliver) {
+                    dropped.incrementAndGet();
+                    return -1;
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    private void consume() {
+        while (true) {
+            long sequence = head.get();
+            int index = (int) (sequence & mask);
+            if (published.get(index) != sequence) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            Event event = slots[index];
+            try {
+                write(event);
+            } catch (RuntimeException e) {
+                System.err.println("[LOG PIPELINE] Failed to write log event: " + e.getMessage());
+            }
+            event.clear();
+            head.lazySet(sequence + 1);
+        }
+    }
+
+    private void write(Event event) {
+        if (event.logMessage != null) {
+            if (event.throwable != null) {
+                logger.log(event.level, event.logMessage, event.throwable);
+            } else {
+                logger.log(event.level, event.logMessage);
+            }
+        }
+        if (event.consoleLine != null) {
+            if (event.toStderr) {
+                System.err.println(event.consoleLine);
+            } else {
+                System.out.println(event.consoleLine);
+            }
+        }
+    }
+
+    private static class Event {
+        private Level level;
+        private String logMessage;
+        private String consoleLine;
+        private boolean toStderr;
+        private Throwable throwable;
+
+        private void clear() {
+            logMessage = null;
+            consoleLine = null;
+            throwable = null;
+        }
+    }
+}
@@ -1,14 +1,41 @@
 package utils;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import io.qameta.allure.Allure;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
 
 /**
- * Centralized logging utility with different log levels and Allure integration
+ * Centralized logging utility with different log levels and Allure integration.
+ * Log4j and console output is handed to a background {@link LogPipeline} unless
+ * -Dlog.async=false. Allure steps are recorded on the calling thread, because
+ * Allure tracks the current test per thread, and grouped by {@link StepAggregator}.
+ * With -Dlog.strict=true errors and failed verifications wait until all pending
+ * output has been written.
+ * Each {@link LogCategory} has its own level (-Dlog.level for GENERAL,
+ * -Dlog.level.element etc. for the others, default info); disabled calls return
+ * before any message is built when the supplier or template overloads are used.
+ * Template arguments are boxed at the call site, so messages built from large
+ * int or long values should use a supplier to stay allocation-free (see
+ * LogUtilsBenchmark).
  */
 public class LogUtils {
     private static final Logger logger = LogManager.getLogger(LogUtils.class);
+    private static final boolean STRICT = Boolean.getBoolean("log.strict");
+    private static final LogPipeline pipeline = Boolean.parseBoolean(System.getProperty("log.async", "true"))
+            ? new LogPipeline(logger, Integer.getInteger("log.async.capacity", 8192),
+                    "drop".equalsIgnoreCase(System.getProperty("log.async.overflow", "block")))
+            : null;
+    private static final AtomicIntegerArray thresholds = new AtomicIntegerArray(LogCategory.values().length);
+    
+    static {
+        for (LogCategory category : LogCategory.values()) {
+            String property = category == LogCategory.GENERAL ? "log.level" : "log.level." + category.name().toLowerCase();
+            thresholds.set(category.ordinal(), Level.toLevel(System.getProperty(property, "info"), Level.INFO).intLevel());
+        }
+    }
     
     private static final String RESET = "\u001B[0m";
     private static final String RED = "\u001B[31m";
@@ -22,62 +49,119 @@ public class LogUtils {
      * Log info level message
      */
     public static void info(String message) {
-        logger.info(message);
-        System.out.println(GREEN + "[INFO] " + message + RESET);
-        Allure.step(message);
+        emit(Level.INFO, message, GREEN + "[INFO] " + message + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.INFO, message);
     }
     
     /**
      * Log error level message
      */
     public static void error(String message) {
-        logger.error(message);
-        System.err.println(RED + "[ERROR] " + message + RESET);
-        Allure.step(message);
+        emit(Level.ERROR, message, RED + "[ERROR] " + message + RESET, true, null);
+        flushIfStrict();
+        StepAggregator.record(StepAggregator.Kind.ERROR, message);
     }
     
     /**
      * Log error with exception
      */
     public static void error(String message, Throwable throwable) {
-        logger.error(message, throwable);
-        System.err.println(RED + "[ERROR] " + message + " - " + throwable.getMessage() + RESET);
-        Allure.step(message + " - " + throwable.getMessage());
+        emit(Level.ERROR, message, RED + "[ERROR] " + message + " - " + throwable.getMessage() + RESET, true, throwable);
+        flushIfStrict();
+        StepAggregator.record(StepAggregator.Kind.ERROR, message + " - " + throwable.getMessage());
     }
     
     /**
      * Log warning level message
      */
     public static void warn(String message) {
-        logger.warn(message);
-        System.out.println(YELLOW + "[WARN] " + message + RESET);
-        Allure.step(message);
+        emit(Level.WARN, message, YELLOW + "[WARN] " + message + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.WARN, message);
     }
     
     /**
      * Log debug level message
      */
     public static void debug(String message) {
-        logger.debug(message);
-        System.out.println(BLUE + "[DEBUG] " + message + RESET);
+        if (!isEnabled(LogCategory.GENERAL, Level.DEBUG)) {
+            return;
+        }
+        debugEnabled(message);
+    }
+    
+    /**
+     * Log a fixed debug message when the category is enabled for debug
+     */
+    public static void debug(LogCategory category, String message) {
+        if (isEnabled(category, Level.DEBUG)) {
+            debugEnabled(message);
+        }
+    }
+    
+    /**
+     * Log debug message built only when the category is enabled for debug
+     */
+    public static void debug(LogCategory category, Supplier<String> message) {
+        if (isEnabled(category, Level.DEBUG)) {
+            debugEnabled(message.get());
+        }
+    }
+    
+    /**
+     * Log debug message from a template with {} placeholders, formatted only when enabled
+     */
+    public static void debug(LogCategory category, String template, Object arg) {
+        if (isEnabled(category, Level.DEBUG)) {
+            debugEnabled(format(template, arg, null));
+        }
+    }
+    
+    public static void debug(LogCategory category, String template, Object arg1, Object arg2) {
+        if (isEnabled(category, Level.DEBUG)) {
+            debugEnabled(format(template, arg1, arg2));
+        }
+    }
+    
+    /**
+     * Log info message from a template with {} placeholders, formatted only when enabled
+     */
+    public static void info(LogCategory category, String template, Object arg) {
+        if (isEnabled(category, Level.INFO)) {
+            info(format(template, arg, null));
+        }
+    }
+    
+    public static void info(LogCategory category, String template, Object arg1, Object arg2) {
+        if (isEnabled(category, Level.INFO)) {
+            info(format(template, arg1, arg2));
+        }
+    }
+    
+    public static boolean isEnabled(LogCategory category, Level level) {
+        return level.intLevel() <= thresholds.get(category.ordinal());
+    }
+    
+    /**
+     * Change the level of a category at runtime
+     */
+    public static void setLevel(LogCategory category, Level level) {
+        thresholds.set(category.ordinal(), level.intLevel());
     }
     
     /**
      * Log test step information
      */
     public static void step(String stepDescription) {
-        logger.info("STEP: " + stepDescription);
-        System.out.println(CYAN + "[STEP] " + stepDescription + RESET);
-        Allure.step(stepDescription);
+        emit(Level.INFO, "STEP: " + stepDescription, CYAN + "[STEP] " + stepDescription + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.STEP, stepDescription);
     }
     
     /**
      * Log test action
      */
     public static void action(String actionDescription) {
-        logger.info("ACTION: " + actionDescription);
-        System.out.println(PURPLE + "[ACTION] " + actionDescription + RESET);
-        Allure.step(actionDescription);
+        emit(Level.INFO, "ACTION: " + actionDescription, PURPLE + "[ACTION] " + actionDescription + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.ACTION, actionDescription);
     }
     
     /**
@@ -87,9 +171,11 @@ public class LogUtils {
         String status = passed ? "PASSED" : "FAILED";
         String color = passed ? GREEN : RED;
         
-        logger.info("VERIFICATION " + status + ": " + verificationDescription);
-        System.out.println(color + "[VERIFICATION " + status + "] " + verificationDescription + RESET);
-        Allure.step(verificationDescription);
+        emit(Level.INFO, "VERIFICATION " + status + ": " + verificationDescription, color + "[VERIFICATION " + status + "] " + verificationDescription + RESET, false, null);
+        if (!passed) {
+            flushIfStrict();
+        }
+        StepAggregator.record(StepAggregator.Kind.VERIFICATION, verificationDescription, !passed);
     }
     
     /**
@@ -97,13 +183,10 @@ public class LogUtils {
      */
     public static void testStart(String testName) {
         String message = "Starting test: " + testName;
-        logger.info("=" + "=".repeat(message.length()) + "=");
-        logger.info(message);
-        logger.info("=" + "=".repeat(message.length()) + "=");
-        
-        System.out.println(CYAN + "\n" + "=".repeat(message.length() + 4) + RESET);
-        System.out.println(CYAN + "  " + message + "  " + RESET);
-        System.out.println(CYAN + "=".repeat(message.length() + 4) + "\n" + RESET);
+        String border = "=" + "=".repeat(message.length()) + "=";
+        emit(Level.INFO, border, CYAN + "\n" + "=".repeat(message.length() + 4) + RESET, false, null);
+        emit(Level.INFO, message, CYAN + "  " + message + "  " + RESET, false, null);
+        emit(Level.INFO, border, CYAN + "=".repeat(message.length() + 4) + "\n" + RESET, false, null);
     }
     
     /**
@@ -114,8 +197,7 @@ public class LogUtils {
         String color = passed ? GREEN : RED;
         String message = "Test " + status + ": " + testName;
         
-        logger.info(message);
-        System.out.println(color + "\n" + message + "\n" + RESET);
+        emit(Level.INFO, message, color + "\n" + message + "\n" + RESET, false, null);
     }
     
     /**
@@ -123,30 +205,33 @@ public class LogUtils {
      */
     public static void pageNavigation(String fromPage, String toPage) {
         String message = "Navigating from " + fromPage + " to " + toPage;
-        logger.info(message);
-        System.out.println(BLUE + "[NAVIGATION] " + message + RESET);
-        Allure.step(message);
+        emit(Level.INFO, message, BLUE + "[NAVIGATION] " + message + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.NAVIGATION, message);
     }
     
     /**
      * Log element interaction
      */
     public static void elementInteraction(String action, String element) {
+        if (!isEnabled(LogCategory.ELEMENT, Level.INFO)) {
+            return;
+        }
         String message = action + " on " + element;
-        logger.info(message);
-        System.out.println(PURPLE + "[ELEMENT] " + message + RESET);
-        Allure.step(message);
+        emit(Level.INFO, message, PURPLE + "[ELEMENT] " + message + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.ELEMENT, message);
     }
     
     /**
      * Log data entry
      */
     public static void dataEntry(String field, String value) {
+        if (!isEnabled(LogCategory.DATA, Level.INFO)) {
+            return;
+        }
         String logValue = isSensitiveData(field) ? "***HIDDEN***" : value;
         String message = "Entering data in " + field + ": " + logValue;
-        logger.info(message);
-        System.out.println(BLUE + "[DATA] " + message + RESET);
-        Allure.step(message);
+        emit(Level.INFO, message, BLUE + "[DATA] " + message + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.DATA, message);
     }
     
     /**
@@ -154,8 +239,64 @@ public class LogUtils {
      */
     public static void config(String configKey, String configValue) {
         String message = "Configuration - " + configKey + ": " + configValue;
-        logger.info(message);
-        System.out.println(YELLOW + "[CONFIG] " + message + RESET);
+        emit(Level.INFO, message, YELLOW + "[CONFIG] " + message + RESET, false, null);
+    }
+    
+    /**
+     * Block until all log output queued so far has been written, e.g. when a test fails
+     */
+    public static void flush() {
+        if (pipeline != null) {
+            pipeline.flush();
+        }
+    }
+    
+    /**
+     * Number of log events dropped because the async buffer was full
+     */
+    public static long getDroppedCount() {
+        return pipeline != null ? pipeline.getDroppedCount() : 0;
+    }
+    
+    private static void debugEnabled(String message) {
+        emit(Level.DEBUG, message, BLUE + "[DEBUG] " + message + RESET, false, null);
+    }
+    
+    private static String format(String template, Object arg1, Object arg2) {
+        StringBuilder message = new StringBuilder(template.length() + 32);
+        Object[] args = {arg1, arg2};
+        int argIndex = 0;
+        int start = 0;
+        int placeholder;
+        while ((placeholder = template.indexOf("{}", start)) >= 0 && argIndex < args.length) {
+            message.append(template, start, placeholder).append(args[argIndex++]);
+            start = placeholder + 2;
+        }
+        return message.append(template, start, template.length()).toString();
+    }
+    
+    private static void flushIfStrict() {
+        if (STRICT) {
+            flush();
+        }
+    }
+    
+    private static void emit(Level level, String logMessage, String consoleLine, boolean toStderr, Throwable throwable) {
+        if (pipeline != null) {
+            pipeline.publish(level, logMessage, consoleLine, toStderr, throwable);
+            return;
+        }
+        
+        if (throwable != null) {
+            logger.log(level, logMessage, throwable);
+        } else {
+            logger.log(level, logMessage);
+        }
+        if (toStderr) {
+            System.err.println(consoleLine);
+        } else {
+            System.out.println(consoleLine);
+        }
     }
     
     /**
@@ -174,18 +315,22 @@ public class LogUtils {
      * Log API or network related information
      */
     public static void network(String message) {
-        logger.info("NETWORK: " + message);
-        System.out.println(CYAN + "[NETWORK] " + message + RESET);
-        Allure.step(message);
+        if (!isEnabled(LogCategory.NETWORK, Level.INFO)) {
+            return;
+        }
+        emit(Level.INFO, "NETWORK: " + message, CYAN + "[NETWORK] " + message + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.NETWORK, message);
     }
     
     /**
      * Log performance metrics
      */
     public static void performance(String metric, long timeMs) {
+        if (!isEnabled(LogCategory.PERFORMANCE, Level.INFO)) {
+            return;
+        }
         String message = metric + " took " + timeMs + "ms";
-        logger.info("PERFORMANCE: " + message);
-        System.out.println(YELLOW + "[PERFORMANCE] " + message + RESET);
-        Allure.step(message);
+        emit(Level.INFO, "PERFORMANCE: " + message, YELLOW + "[PERFORMANCE] " + message + RESET, false, null);
+        StepAggregator.record(StepAggregator.Kind.PERFORMANCE, message);
     }
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package utils;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+import org.w3c.dom.Element;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Screen positions of the digit keys of a numpad, resolved from one page source.
+ * A whole key sequence is then sent as a single W3C Actions request instead of
+ * one lookup and click per digit. The last layout is kept per thread and reused
+ * while the corner keys are still where they were. That is checked against the
+ * current snapshot when one is still valid; otherwise, e.g. right after the taps
+ * of the previous entry, the corner keys are looked up on the device, so reusing
+ * a layout never costs a page source. The layout is dropped whenever the thread's
+ * driver lease or the classified screen changes.
+ */
+public class NumpadLayout {
+    private static final String DIGITS = "0123456789";
+    private static final ThreadLocal<NumpadLayout> current = new ThreadLocal<>();
+
+    private final Map<Character, Point> keyCenters;
+
+    private NumpadLayout(Map<Character, Point> keyCenters) {
+        this.keyCenters = keyCenters;
+    }
+
+    /**
+     * Layout of the numpad on the current screen, or null when not every digit key is present
+     *
+     * @param keyLocator locator of the key for a digit
+     */
+    public static NumpadLayout forCurrentScreen(Function<Character, By> keyLocator) {
+        NumpadLayout cached = current.get();
+        if (cached != null) {
+            PageSnapshot snapshot = PageSnapshot.peek();
+            boolean valid = snapshot != null
+                    ? cached.isValidFor(snapshot, keyLocator)
+                    : cached.isValidOnScreen(keyLocator);
+            if (valid) {
+                return cached;
+            }
+            LogUtils.debug(LogCategory.ELEMENT, "Numpad moved since its layout was cached, resolving again");
+        }
+
+        NumpadLayout layout = resolve(PageSnapshot.get(), keyLocator);
+        if (layout == null) {
+            current.remove();
+        } else {
+            current.set(layout);
+        }
+        return layout;
+    }
+
+    public static void invalidate() {
+        current.remove();
+    }
+
+    /**
+     * Tap the keys in one actions request, pausing between taps
+     */
+    public void tap(AppiumDriver driver, String keys) {
+        Map<String, Object> numpadConfig = ConfigManager.getInstance().getNumpadConfig(getPlatform(driver));
+        Duration pressDuration = Duration.ofMillis(getLongValue(numpadConfig, "pressDuration", 50));
+        Duration tapDelay = Duration.ofMillis(getLongValue(numpadConfig, "tapDelay", 100));
+
+        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+        Sequence taps = new Sequence(finger, 0);
+        for (int i = 0; i < keys.length(); i++) {
+            Point center = keyCenters.get(keys.charAt(i));
+            if (center == null) {
+                throw new IllegalArgumentException("Key '" + keys.charAt(i) + "' is not part of the numpad");
+            }
+            if (i > 0 && !tapDelay.isZero()) {
+                taps.addAction(new Pause(finger, tapDelay));
+            }
+            taps.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), center.getX(), center.getY()));
+            taps.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+            taps.addAction(new Pause(finger, pressDuration));
+            taps.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+        }
+
+        long start = System.currentTimeMillis();
+        driver.perform(List.of(taps));
+        LogUtils.performance("Numpad entry of " + keys.length() + " keys", System.currentTimeMillis() - start);
+    }
+
+    private boolean isValidFor(PageSnapshot snapshot, Function<Character, By> keyLocator) {
+        for (char corner : new char[] {'1', '0'}) {
+            Point center = findKeyCenter(snapshot, keyLocator.apply(corner));
+            if (center == null || !center.equals(keyCenters.get(corner))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same check as {@link #isValidFor} with one element lookup per corner key instead of a page source
+     */
+    private boolean isValidOnScreen(Function<Character, By> keyLocator) {
+        for (char corner : new char[] {'1', '0'}) {
+            Rectangle bounds = WaitUtils.getElementRectNow(keyLocator.apply(corner));
+            if (bounds == null || !centerOf(bounds).equals(keyCenters.get(corner))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static NumpadLayout resolve(PageSnapshot snapshot, Function<Character, By> keyLocator) {
+        Map<Character, Point> centers = new HashMap<>();
+        for (char digit : DIGITS.toCharArray()) {
+            Point center = findKeyCenter(snapshot, keyLocator.apply(digit));
+            if (center == null) {
+                LogUtils.debug(LogCategory.ELEMENT, "Numpad key '{}' not found in page source", digit);
+                return null;
+            }
+            centers.put(digit, center);
+        }
+        return new NumpadLayout(centers);
+    }
+
+    private static Point findKeyCenter(PageSnapshot snapshot, By locator) {
+        List<Element> found = snapshot.find(locator);
+        if (found == null || found.isEmpty()) {
+            return null;
+        }
+        Rectangle bounds = PageSnapshot.getBounds(found.get(0));
+        if (bounds == null) {
+            return null;
+        }
+        return centerOf(bounds);
+    }
+
+    private static Point centerOf(Rectangle bounds) {
+        return new Point(bounds.getX() + bounds.getWidth() / 2, bounds.getY() + bounds.getHeight() / 2);
+    }
+
+    private static String getPlatform(AppiumDriver driver) {
+        return driver instanceof IOSDriver ? "ios" : "android";
+    }
+
+    private static long getLongValue(Map<String, Object> values, String key, long defaultValue) {
+        Object value = values.get(key);
+        return value != null ? Long.parseLong(value.toString()) : defaultValue;
+    }
+}
@@ -0,0 +1,299 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of one page source, so presence, text and displayed checks for
+ * a UI state can be answered locally instead of with a round trip per element.
+ * Each thread keeps its current snapshot until a command that may change the UI
+ * is sent (see {@link InstrumentedCommandExecutor}), it gets too old or the
+ * thread's driver lease changes. A lease whose app was reset on another thread
+ * therefore never sees a snapshot from before the reset.
+ */
+public class PageSnapshot {
+    private static final long MAX_AGE_MS = 2000;
+    private static final Pattern TEXT_EQUALS = Pattern.compile("^//([\\w.*]+)\\[@text='([^']*)'\\]$");
+    private static final Set<String> READ_ONLY_COMMANDS = Set.of(
+            "findElement", "findElements", "findChildElement", "findChildElements",
+            "getElementText", "getElementAttribute", "getElementDomAttribute", "getElementDomProperty",
+            "getElementRect", "getElementLocation", "getElementSize", "getElementTagName",
+            "isElementDisplayed", "isElementEnabled", "isElementSelected",
+            "getPageSource", "screenshot", "elementScreenshot", "getTimeouts", "setTimeout",
+            "getCapabilities", "status", "getCurrentContextHandle", "getContextHandles",
+            "getScreenOrientation", "getCurrentWindowSize", "queryAppState", "currentActivity", "getCurrentPackage");
+    private static final Pattern ANDROID_BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)\\]\\[(-?\\d+),(-?\\d+)\\]");
+    private static final ThreadLocal<PageSnapshot> current = new ThreadLocal<>();
+
+    private final long capturedAt;
+    private final long leaseId;
+    private final Document document;
+    private final List<Element> elements = new ArrayList<>();
+    private final Map<String, List<Element>> byResourceId = new HashMap<>();
+    private final Map<String, List<Element>> byText = new HashMap<>();
+    private final Map<String, List<Element>> byClass = new HashMap<>();
+    private final Map<String, List<Element>> byContentDesc = new HashMap<>();
+
+    private PageSnapshot(Document document) {
+        this.capturedAt = System.currentTimeMillis();
+        this.leaseId = DriverUtils.getLeaseId();
+        this.document = document;
+        index(document.getDocumentElement());
+    }
+
+    /**
+     * Snapshot of the current UI for the calling thread, fetching the page source
+     * only when there is no valid snapshot yet
+     */
+    public static PageSnapshot get() {
+        PageSnapshot snapshot = current.get();
+        if (!isValid(snapshot)) {
+            snapshot = capture(DriverUtils.getDriver());
+            current.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * The calling thread's snapshot if it is still valid, without fetching a new one
+     */
+    public static PageSnapshot peek() {
+        PageSnapshot snapshot = current.get();
+        return isValid(snapshot) ? snapshot : null;
+    }
+
+    public static void invalidate() {
+        current.remove();
+    }
+
+    /**
+     * Drop the calling thread's snapshot unless the command only reads UI state
+     */
+    public static void onCommand(String commandName) {
+        if (!READ_ONLY_COMMANDS.contains(commandName)) {
+            current.remove();
+        }
+    }
+
+    private static boolean isValid(PageSnapshot snapshot) {
+        return snapshot != null && snapshot.leaseId == DriverUtils.getLeaseId()
+                && System.currentTimeMillis() - snapshot.capturedAt <= MAX_AGE_MS;
+    }
+
+    public static PageSnapshot capture(WebDriver driver) {
+        long start = System.currentTimeMillis();
+        PageSnapshot snapshot = parse(driver.getPageSource());
+        long elapsed = System.currentTimeMillis() - start;
+        LogUtils.debug(LogCategory.ELEMENT, () -> "Page snapshot indexed " + snapshot.elements.size() + " elements in "
+                + elapsed + "ms");
+        return snapshot;
+    }
+
+    public static PageSnapshot parse(String pageSource) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return new PageSnapshot(builder.parse(new InputSource(new StringReader(pageSource))));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to parse page source", e);
+        }
+    }
+
+    /**
+     * Elements matching the locator, or null when the locator cannot be evaluated locally
+     */
+    public List<Element> find(By locator) {
+        if (locator instanceof LocatorCompiler.CompiledLocator) {
+            return findByXpath(((LocatorCompiler.CompiledLocator) locator).getXpath());
+        }
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+
+        switch (parameters.using()) {
+            case "id":
+                List<Element> exact = byResourceId.getOrDefault(value, Collections.emptyList());
+                return exact.isEmpty() ? findByIdSuffix(value) : exact;
+            case "class name":
+                return byClass.getOrDefault(value, Collections.emptyList());
+            case "accessibility id":
+                return byContentDesc.getOrDefault(value, Collections.emptyList());
+            case "xpath":
+                return findByXpath(value);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * TRUE or FALSE when the snapshot can answer, null when the locator is not supported locally
+     */
+    public Boolean isPresent(By locator) {
+        List<Element> found = find(locator);
+        return found == null ? null : !found.isEmpty();
+    }
+
+    public String getText(By locator) {
+        List<Element> found = find(locator);
+        if (found == null || found.isEmpty()) {
+            return null;
+        }
+        return getText(found.get(0));
+    }
+
+    public static String getText(Element element) {
+        if (element.hasAttribute("text")) {
+            return element.getAttribute("text");
+        }
+        if (element.hasAttribute("label")) {
+            return element.getAttribute("label");
+        }
+        return element.getAttribute("value");
+    }
+
+    public static boolean isDisplayed(Element element) {
+        String displayed = element.hasAttribute("displayed") ? element.getAttribute("displayed") : element.getAttribute("visible");
+        return displayed.isEmpty() || Boolean.parseBoolean(displayed);
+    }
+
+    /**
+     * Bounds of the first element matching the locator in device coordinates, or null
+     */
+    public Rectangle getBounds(By locator) {
+        List<Element> found = find(locator);
+        return found == null || found.isEmpty() ? null : getBounds(found.get(0));
+    }
+
+    /**
+     * Bounds from Android's bounds attribute or iOS's x/y/width/height, or null when the element has none
+     */
+    public static Rectangle getBounds(Element element) {
+        Matcher bounds = ANDROID_BOUNDS.matcher(element.getAttribute("bounds"));
+        if (bounds.matches()) {
+            int left = Integer.parseInt(bounds.group(1));
+            int top = Integer.parseInt(bounds.group(2));
+            return new Rectangle(left, top,
+                    Integer.parseInt(bounds.group(4)) - top, Integer.parseInt(bounds.group(3)) - left);
+        }
+        if (element.hasAttribute("x") && element.hasAttribute("width")) {
+            return new Rectangle(Integer.parseInt(element.getAttribute("x")), Integer.parseInt(element.getAttribute("y")),
+                    Integer.parseInt(element.getAttribute("height")), Integer.parseInt(element.getAttribute("width")));
+        }
+        return null;
+    }
+
+    /**
+     * Screen size in the coordinates used by element bounds, or null when the source does not tell
+     */
+    public Dimension getScreenSize() {
+        Element root = document.getDocumentElement();
+        if (root.hasAttribute("width") && root.hasAttribute("height") && !root.hasAttribute("x")) {
+            return new Dimension(Integer.parseInt(root.getAttribute("width")), Integer.parseInt(root.getAttribute("height")));
+        }
+        for (Element element : elements) {
+            Rectangle bounds = getBounds(element);
+            if (bounds != null && bounds.getWidth() > 0) {
+                return bounds.getDimension();
+            }
+        }
+        return null;
+    }
+
+    public int getElementCount() {
+        return elements.size();
+    }
+
+    private List<Element> findByIdSuffix(String id) {
+        String suffix = ":id/" + id;
+        List<Element> matches = new ArrayList<>();
+        byResourceId.forEach((resourceId, candidates) -> {
+            if (resourceId.endsWith(suffix)) {
+                matches.addAll(candidates);
+            }
+        });
+        return matches;
+    }
+
+    private List<Element> findByXpath(String xpath) {
+        Matcher textEquals = TEXT_EQUALS.matcher(xpath);
+        if (textEquals.matches()) {
+            String className = textEquals.group(1);
+            List<Element> matches = new ArrayList<>();
+            for (Element candidate : byText.getOrDefault(textEquals.group(2), Collections.emptyList())) {
+                if ("*".equals(className) || className.equals(candidate.getTagName())) {
+                    matches.add(candidate);
+                }
+            }
+            return matches;
+        }
+
+        try {
+            NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath()
+                    .evaluate(xpath, document, XPathConstants.NODESET);
+            List<Element> matches = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i) instanceof Element) {
+                    matches.add((Element) nodes.item(i));
+                }
+            }
+            return matches;
+        } catch (XPathExpressionException e) {
+            LogUtils.debug(LogCategory.ELEMENT, "XPath cannot be evaluated locally: {}", xpath);
+            return null;
+        }
+    }
+
+    private void index(Element root) {
+        List<Element> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Element element = stack.remove(stack.size() - 1);
+            elements.add(element);
+            addToIndex(byResourceId, element.hasAttribute("resource-id") ? element.getAttribute("resource-id") : element.getAttribute("name"), element);
+            addToIndex(byText, getText(element), element);
+            addToIndex(byClass, element.getTagName(), element);
+            addToIndex(byContentDesc, element.hasAttribute("content-desc") ? element.getAttribute("content-desc") : element.getAttribute("name"), element);
+
+            NodeList children = element.getChildNodes();
+            for (int i = children.getLength() - 1; i >= 0; i--) {
+                Node child = children.item(i);
+                if (child instanceof Element) {
+                    stack.add((Element) child);
+                }
+            }
+        }
+    }
+
+    private static void addToIndex(Map<String, List<Element>> index, String key, Element element) {
+        if (key != null && !key.isEmpty()) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(element);
+        }
+    }
+}
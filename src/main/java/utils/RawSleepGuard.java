@@ -0,0 +1,27 @@
+package utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Before;
+
+/**
+ * Flags raw Thread.sleep calls made from page objects and tests. Fixed sleeps
+ * should be replaced with a wait on the condition the code is waiting for.
+ * Set -Dsleep.guard=fail to turn the warning into an error.
+ */
+@Aspect
+public class RawSleepGuard {
+
+    @Before("call(static void java.lang.Thread.sleep(..)) && (within(pages..*) || within(tests..*))")
+    public void flagRawSleep(JoinPoint joinPoint) {
+        String location = joinPoint.getSourceLocation() != null
+                ? joinPoint.getSourceLocation().getWithinType().getName() + ":" + joinPoint.getSourceLocation().getLine()
+                : joinPoint.getStaticPart().toShortString();
+        String message = "Raw Thread.sleep in " + location + " - use a WaitUtils condition instead";
+
+        if ("fail".equalsIgnoreCase(System.getProperty("sleep.guard"))) {
+            throw new IllegalStateException(message);
+        }
+        LogUtils.warn(message);
+    }
+}
@@ -0,0 +1,261 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Append-only index of the artifacts in the {@link ArtifactStore}: one line per
+ * stored artifact (blob, kind, size, time, test, run, link) and one tombstone
+ * line per evicted artifact. Entries are kept oldest first per kind, so count,
+ * age and size quotas are enforced by taking entries off the front, and the cost
+ * of a cleanup grows with what it deletes rather than with what is on disk.
+ * The file is compacted once tombstones outnumber live entries.
+ */
+class RetentionIndex {
+    private static final int MIN_TOMBSTONES_FOR_COMPACTION = 1024;
+
+    private final Path file;
+    private final Map<String, ArrayDeque<Entry>> byKind = new HashMap<>();
+    private final Map<Long, Entry> live = new HashMap<>();
+    private final Map<String, Integer> blobRefs = new HashMap<>();
+    private final Map<String, Long> blobSizes = new HashMap<>();
+    private long totalBytes;
+    private long nextSequence;
+    private long tombstones;
+
+    /**
+     * One stored artifact
+     */
+    static class Entry {
+        private final long sequence;
+        private final String blob;
+        private final String kind;
+        private final long size;
+        private final long storedAt;
+        private final String test;
+        private final String run;
+        private final Path link;
+        private boolean evicted;
+
+        private Entry(long sequence, String blob, String kind, long size, long storedAt, String test, String run, Path link) {
+            this.sequence = sequence;
+            this.blob = blob;
+            this.kind = kind;
+            this.size = size;
+            this.storedAt = storedAt;
+            this.test = test;
+            this.run = run;
+            this.link = link;
+        }
+    }
+
+    /**
+     * Links and blobs that a cleanup took out of the index and that should now be deleted
+     */
+    static class Eviction {
+        final List<Path> links = new ArrayList<>();
+        final List<String> blobs = new ArrayList<>();
+    }
+
+    RetentionIndex(Path file) {
+        this.file = file;
+        load();
+    }
+
+    boolean hasBlob(String blob) {
+        return blobRefs.containsKey(blob);
+    }
+
+    /**
+     * Record a stored artifact; entries must be added in the order they were stored
+     */
+    void add(String blob, String kind, long size, long storedAt, String test, String run, Path link) {
+        Entry entry = new Entry(nextSequence++, blob, kind, size, storedAt, test, run, link);
+        track(entry);
+        append(format(entry));
+    }
+
+    /**
+     * Take the oldest entries off until every quota holds: at most keepLastN entries
+     * of the given kinds together, none older than maxAgeMs and at most maxTotalBytes
+     * of blobs across all kinds. A negative keepLastN, and an age or size quota of
+     * zero or less, is not enforced; keepLastN of zero evicts every entry of the kinds.
+     */
+    Eviction evict(Set<String> kinds, int keepLastN, long maxAgeMs, long maxTotalBytes) {
+        Eviction eviction = new Eviction();
+        StringBuilder tombstoneLines = new StringBuilder();
+
+        if (keepLastN >= 0) {
+            int count = 0;
+            for (String kind : kinds) {
+                count += liveEntries(kind).size();
+            }
+            for (; count > keepLastN; count--) {
+                evictEntry(oldestOf(kinds).pollFirst(), eviction, tombstoneLines);
+            }
+        }
+        if (maxAgeMs > 0) {
+            long cutoff = System.currentTimeMillis() - maxAgeMs;
+            for (String kind : byKind.keySet()) {
+                ArrayDeque<Entry> entries = liveEntries(kind);
+                while (!entries.isEmpty() && entries.peekFirst().storedAt < cutoff) {
+                    evictEntry(entries.pollFirst(), eviction, tombstoneLines);
+                }
+            }
+        }
+        while (maxTotalBytes > 0 && totalBytes > maxTotalBytes) {
+            ArrayDeque<Entry> oldest = oldestOf(byKind.keySet());
+            if (oldest == null) {
+                break;
+            }
+            evictEntry(oldest.pollFirst(), eviction, tombstoneLines);
+        }
+
+        if (tombstoneLines.length() > 0) {
+            append(tombstoneLines.toString());
+        }
+        if (tombstones >= MIN_TOMBSTONES_FOR_COMPACTION && tombstones > live.size()) {
+            compact();
+        }
+        return eviction;
+    }
+
+    int size() {
+        return live.size();
+    }
+
+    int blobCount() {
+        return blobRefs.size();
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Kind deque with already evicted entries dropped from its front
+     */
+    private ArrayDeque<Entry> liveEntries(String kind) {
+        ArrayDeque<Entry> entries = byKind.computeIfAbsent(kind, k -> new ArrayDeque<>());
+        while (!entries.isEmpty() && entries.peekFirst().evicted) {
+            entries.pollFirst();
+        }
+        return entries;
+    }
+
+    /**
+     * Live deque among the given kinds whose first entry was stored earliest, or null when all are empty
+     */
+    private ArrayDeque<Entry> oldestOf(Set<String> kinds) {
+        ArrayDeque<Entry> oldest = null;
+        for (String kind : kinds) {
+            ArrayDeque<Entry> entries = liveEntries(kind);
+            if (!entries.isEmpty() && (oldest == null || entries.peekFirst().sequence < oldest.peekFirst().sequence)) {
+                oldest = entries;
+            }
+        }
+        return oldest;
+    }
+
+    private void evictEntry(Entry entry, Eviction eviction, StringBuilder tombstoneLines) {
+        untrack(entry, eviction);
+        eviction.links.add(entry.link);
+        tombstoneLines.append("D\t").append(entry.sequence).append('\n');
+        tombstones++;
+    }
+
+    private void track(Entry entry) {
+        byKind.computeIfAbsent(entry.kind, k -> new ArrayDeque<>()).addLast(entry);
+        live.put(entry.sequence, entry);
+        if (blobRefs.merge(entry.blob, 1, Integer::sum) == 1) {
+            blobSizes.put(entry.blob, entry.size);
+            totalBytes += entry.size;
+        }
+    }
+
+    private void untrack(Entry entry, Eviction eviction) {
+        entry.evicted = true;
+        live.remove(entry.sequence);
+        if (blobRefs.merge(entry.blob, -1, Integer::sum) <= 0) {
+            blobRefs.remove(entry.blob);
+            totalBytes -= blobSizes.remove(entry.blob);
+            if (eviction != null) {
+                eviction.blobs.add(entry.blob);
+            }
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file)) {
+                String[] fields = line.split("\t");
+                if (fields.length == 2 && fields[0].equals("D")) {
+                    Entry entry = live.get(Long.parseLong(fields[1]));
+                    if (entry != null) {
+                        untrack(entry, null);
+                        tombstones++;
+                    }
+                } else if (fields.length == 9 && fields[0].equals("A")) {
+                    Entry entry = new Entry(Long.parseLong(fields[1]), fields[2], fields[3], Long.parseLong(fields[4]),
+                            Long.parseLong(fields[5]), fields[6], fields[7], Paths.get(fields[8]));
+                    track(entry);
+                    nextSequence = Math.max(nextSequence, entry.sequence + 1);
+                }
+            }
+            byKind.values().forEach(entries -> entries.removeIf(entry -> entry.evicted));
+        } catch (IOException | RuntimeException e) {
+            LogUtils.warn("Failed to load artifact index " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void compact() {
+        try {
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "index", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
+                for (ArrayDeque<Entry> entries : byKind.values()) {
+                    for (Entry entry : entries) {
+                        if (!entry.evicted) {
+                            writer.write(format(entry));
+                        }
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            byKind.values().forEach(entries -> entries.removeIf(entry -> entry.evicted));
+            tombstones = 0;
+        } catch (IOException e) {
+            LogUtils.warn("Failed to compact artifact index: " + e.getMessage());
+        }
+    }
+
+    private void append(String lines) {
+        try {
+            Files.writeString(file, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LogUtils.warn("Failed to append to artifact index: " + e.getMessage());
+        }
+    }
+
+    private static String format(Entry entry) {
+        return "A\t" + entry.sequence + "\t" + entry.blob + "\t" + entry.kind + "\t" + entry.size + "\t" + entry.storedAt
+                + "\t" + clean(entry.test) + "\t" + clean(entry.run) + "\t" + entry.link + "\n";
+    }
+
+    private static String clean(String value) {
+        return value == null || value.isEmpty() ? "-" : value.replace('\t', ' ').replace('\n', ' ');
+    }
+}
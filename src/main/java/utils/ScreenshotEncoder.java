@@ -0,0 +1,169 @@
+package utils;
+
+import org.openqa.selenium.Rectangle;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Re-encodes screenshots according to the screenshot section of the device
+ * configuration: optional crop to a region, downscale so the longer side fits
+ * maxDimension, and PNG or lossy JPEG output at the configured quality. With
+ * the defaults (png, no limit, no crop) screenshots are stored as captured.
+ */
+public class ScreenshotEncoder {
+    private final String format;
+    private final float quality;
+    private final int maxDimension;
+    private final boolean cropToElement;
+    private final int cropPadding;
+
+    ScreenshotEncoder(String format, float quality, int maxDimension, boolean cropToElement, int cropPadding) {
+        this.format = format;
+        this.quality = quality;
+        this.maxDimension = maxDimension;
+        this.cropToElement = cropToElement;
+        this.cropPadding = cropPadding;
+    }
+
+    public static ScreenshotEncoder fromConfig(Map<String, Object> config) {
+        String format = String.valueOf(config.getOrDefault("format", "png")).toLowerCase();
+        if (format.equals("jpg")) {
+            format = "jpeg";
+        } else if (format.equals("webp")) {
+            LogUtils.warn("Screenshot format 'webp' has no ImageIO writer, using jpeg");
+            format = "jpeg";
+        } else if (!format.equals("png") && !format.equals("jpeg")) {
+            LogUtils.warn("Unsupported screenshot format '" + format + "', using png");
+            format = "png";
+        }
+        return new ScreenshotEncoder(format,
+                Float.parseFloat(String.valueOf(config.getOrDefault("quality", 0.8))),
+                Integer.parseInt(String.valueOf(config.getOrDefault("maxDimension", 0))),
+                Boolean.parseBoolean(String.valueOf(config.getOrDefault("cropToElement", false))),
+                Integer.parseInt(String.valueOf(config.getOrDefault("cropPadding", 48))));
+    }
+
+    public boolean isCropToElement() {
+        return cropToElement;
+    }
+
+    public int getCropPadding() {
+        return cropPadding;
+    }
+
+    /**
+     * True when a screenshot without a crop region can be stored byte for byte as captured
+     */
+    public boolean isPassthrough(Region crop) {
+        return format.equals("png") && maxDimension <= 0 && crop == null;
+    }
+
+    public String getExtension() {
+        return format.equals("jpeg") ? "jpg" : "png";
+    }
+
+    public String getMimeType() {
+        return "image/" + format;
+    }
+
+    /**
+     * Decode the PNG, apply crop and downscale, and write it in the configured format
+     */
+    public void encode(InputStream png, Region crop, OutputStream out) throws IOException {
+        BufferedImage image = ImageIO.read(png);
+        if (image == null) {
+            throw new IOException("Screenshot is not a readable image");
+        }
+        if (crop != null) {
+            image = crop(image, crop);
+        }
+        image = scaleDown(image);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (format.equals("jpeg")) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                image = withoutAlpha(image);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static BufferedImage crop(BufferedImage image, Region region) {
+        double scale = region.screenWidth > 0 ? (double) image.getWidth() / region.screenWidth : 1.0;
+        int x = clamp((int) Math.round(region.bounds.getX() * scale), image.getWidth() - 1);
+        int y = clamp((int) Math.round(region.bounds.getY() * scale), image.getHeight() - 1);
+        int right = clamp((int) Math.round((region.bounds.getX() + region.bounds.getWidth()) * scale), image.getWidth());
+        int bottom = clamp((int) Math.round((region.bounds.getY() + region.bounds.getHeight()) * scale), image.getHeight());
+        if (right <= x || bottom <= y) {
+            return image;
+        }
+        return image.getSubimage(x, y, right - x, bottom - y);
+    }
+
+    private BufferedImage scaleDown(BufferedImage image) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (maxDimension <= 0 || longest <= maxDimension) {
+            return image;
+        }
+        int width = Math.max(1, image.getWidth() * maxDimension / longest);
+        int height = Math.max(1, image.getHeight() * maxDimension / longest);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    private static BufferedImage withoutAlpha(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.drawImage(image, 0, 0, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    private static int clamp(int value, int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    /**
+     * Area of the screen to keep, in device coordinates, with the screen width
+     * used to map it onto the screenshot's pixels
+     */
+    public static class Region {
+        private final Rectangle bounds;
+        private final int screenWidth;
+
+        public Region(Rectangle bounds, int screenWidth) {
+            this.bounds = bounds;
+            this.screenWidth = screenWidth;
+        }
+
+        @Override
+        public String toString() {
+            return bounds.getX() + "," + bounds.getY() + " " + bounds.getWidth() + "x" + bounds.getHeight();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decodes, stores and attaches screenshots on a small background pool so the
+ * test thread only pays for the capture itself. The base64 payload is decoded
+ * as a stream straight into the {@link ArtifactStore}'s file channel, so a
+ * repeated frame is stored once, and Allure gets a link to the stored file
+ * rather than another copy of the bytes. The Allure attachment is registered
+ * on the calling thread, where Allure knows the current test, and its content
+ * is filled in later by a worker. When the queue is full the calling thread
+ * does the work itself, which keeps memory bounded. Downscaling, cropping and
+ * re-encoding configured through {@link ScreenshotEncoder} also run on the pool,
+ * and the encoder writes into the store's file channel the same way.
+ */
+public class ScreenshotPipeline {
+    private static final Path ALLURE_RESULTS = Paths.get(System.getProperty("allure.results.directory", "allure-results"));
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final Condition drained = drainLock.newCondition();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong encodedBytes = new AtomicLong();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
+
+    private final ScreenshotEncoder encoder;
+
+    public ScreenshotPipeline(int workers, int queueSize, ScreenshotEncoder encoder) {
+        this.encoder = encoder;
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-writer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a captured screenshot for writing to the file and, when a test is
+     * running, attaching to the Allure report
+     *
+     * @param base64Png screenshot as returned by the driver
+     * @param crop region to keep, or null for the whole screen
+     */
+    public void submit(String base64Png, Path file, String description, ScreenshotEncoder.Region crop) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String attachmentSource = lifecycle.getCurrentTestCaseOrStep().isPresent()
+                ? lifecycle.prepareAttachment(description, encoder.getMimeType(), "." + encoder.getExtension())
+                : null;
+
+        int depth = pending.incrementAndGet();
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+        String test = ArtifactStore.getCurrentTest();
+        executor.execute(() -> write(base64Png, file, crop, test, attachmentSource, lifecycle));
+    }
+
+    /**
+     * Wait until every queued screenshot has been written
+     *
+     * @return true when the queue drained within the timeout
+     */
+    public boolean drain(long timeoutMs) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        drainLock.lock();
+        try {
+            while (pending.get() > 0) {
+                if (remainingNanos <= 0) {
+                    LogUtils.warn("Screenshot queue not drained, " + pending.get() + " still pending");
+                    return false;
+                }
+                remainingNanos = drained.awaitNanos(remainingNanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    public int getQueueDepth() {
+        return pending.get();
+    }
+
+    public String getStats() {
+        synchronized (writeLatency) {
+            return "written=" + completed.get()
+                    + ", failed=" + failed.get()
+                    + ", pending=" + pending.get()
+                    + ", maxQueueDepth=" + maxQueueDepth.get()
+                    + ", encoded=" + (encodedBytes.get() / 1024) + "KB"
+                    + String.format(", write p50=%.1fms p99=%.1fms max=%.1fms",
+                            writeLatency.getValueAtPercentile(50) / 1000.0,
+                            writeLatency.getValueAtPercentile(99) / 1000.0,
+                            writeLatency.getMaxValue() / 1000.0);
+        }
+    }
+
+    private void write(String base64Png, Path file, ScreenshotEncoder.Region crop, String test,
+                       String attachmentSource, AllureLifecycle lifecycle) {
+        long start = System.nanoTime();
+        try {
+            ArtifactStore.Ref ref;
+            try (InputStream png = new Base64InputStream(base64Png)) {
+                if (encoder.isPassthrough(crop)) {
+                    ref = ArtifactStore.put(png, file, "png", test);
+                } else {
+                    ref = ArtifactStore.put(out -> encoder.encode(png, crop, out), file, encoder.getExtension(), test);
+                    encodedBytes.addAndGet(Files.size(ref.getBlob()));
+                }
+            }
+            if (attachmentSource != null && !ArtifactStore.link(ref, ALLURE_RESULTS.resolve(attachmentSource))) {
+                try (InputStream blob = Files.newInputStream(ref.getBlob())) {
+                    lifecycle.writeAttachment(attachmentSource, blob);
+                }
+            }
+            completed.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+            LogUtils.warn("Failed to write screenshot " + file.getFileName() + ": " + e.getMessage());
+        } finally {
+            synchronized (writeLatency) {
+                writeLatency.record((System.nanoTime() - start) / 1000);
+            }
+            if (pending.decrementAndGet() == 0) {
+                drainLock.lock();
+                try {
+                    drained.signalAll();
+                } finally {
+                    drainLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes a base64 string in fixed-size chunks without copying the whole
+     * string or its decoded content; line breaks in the input are skipped
+     */
+    static class Base64InputStream extends InputStream {
+        private static final int ENCODED_CHUNK = 64 * 1024;
+
+        private final String text;
+        private final byte[] encoded = new byte[ENCODED_CHUNK];
+        private final byte[] decoded = new byte[ENCODED_CHUNK / 4 * 3];
+        private int position;
+        private int decodedLength;
+        private int decodedPosition;
+
+        Base64InputStream(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() {
+            if (decodedPosition == decodedLength && !refill()) {
+                return -1;
+            }
+            return decoded[decodedPosition++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (decodedPosition == decodedLength && !refill()) {
+                return -1;
+            }
+            int count = Math.min(length, decodedLength - decodedPosition);
+            System.arraycopy(decoded, decodedPosition, buffer, offset, count);
+            decodedPosition += count;
+            return count;
+        }
+
+        private boolean refill() {
+            int count = 0;
+            while (position < text.length() && count < encoded.length) {
+                char c = text.charAt(position++);
+                if (c != '\r' && c != '\n') {
+                    encoded[count++] = (byte) c;
+                }
+            }
+            if (count == 0) {
+                return false;
+            }
+            byte[] chunk = count == encoded.length ? encoded : Arrays.copyOf(encoded, count);
+            decodedLength = Base64.getDecoder().decode(chunk, decoded);
+            decodedPosition = 0;
+            return true;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package utils;
 
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
 import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Rectangle;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
-import io.qameta.allure.Allure;
 import io.qameta.allure.Attachment;
 
 import java.io.IOException;
@@ -12,6 +14,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /**
  * Enhanced screenshot utility with Allure integration and intelligent capture
@@ -19,9 +22,17 @@ import java.time.format.DateTimeFormatter;
 public class ScreenshotUtils {
     private static final ConfigManager configManager = ConfigManager.getInstance();
     private static final String SCREENSHOT_DIR;
+    private static final ScreenshotEncoder encoder;
+    private static final ScreenshotPipeline pipeline;
+    private static final long DRAIN_TIMEOUT_MS = 30000;
+    private static final ThreadLocal<By> elementUnderTest = new ThreadLocal<>();
     
     static {
-        SCREENSHOT_DIR = (String) configManager.getScreenshotConfig("android").get("path");
+        Map<String, Object> screenshotConfig = configManager.getScreenshotConfig("android");
+        SCREENSHOT_DIR = (String) screenshotConfig.get("path");
+        encoder = ScreenshotEncoder.fromConfig(screenshotConfig);
+        pipeline = new ScreenshotPipeline(getIntValue(screenshotConfig, "workers", 1),
+                getIntValue(screenshotConfig, "queueSize", 16), encoder);
         createScreenshotDirectory();
     }
 
@@ -30,7 +41,7 @@ public class ScreenshotUtils {
      */
     public static void takeScreenshot(String testName) {
         if (!isScreenshotEnabled()) {
-            LogUtils.debug("Screenshots disabled, skipping capture");
+            LogUtils.debug(LogCategory.DATA, "Screenshots disabled, skipping capture");
             return;
         }
 
@@ -43,15 +54,13 @@ public class ScreenshotUtils {
                 return;
             }
 
-            byte[] screenshot = captureScreenshotAsBytes(driver);
-            String filename = generateFilename(testName);
-            Path screenshotPath = saveScreenshotToFile(screenshot, filename);
-            
-            attachToAllure(screenshot, testName);
+            String screenshot = captureScreenshotAsBase64(driver);
+            Path screenshotPath = Paths.get(SCREENSHOT_DIR, generateFilename(testName));
+            pipeline.submit(screenshot, screenshotPath, testName, getCropRegion());
             
             long duration = System.currentTimeMillis() - startTime;
             LogUtils.performance("Screenshot capture", duration);
-            LogUtils.info("Screenshot saved: " + screenshotPath.toAbsolutePath());
+            LogUtils.info("Screenshot queued: " + screenshotPath.toAbsolutePath());
             
         } catch (Exception e) {
             LogUtils.error("Failed to take screenshot for test: " + testName, e);
@@ -73,11 +82,8 @@ public class ScreenshotUtils {
                 return;
             }
 
-            byte[] screenshot = captureScreenshotAsBytes(driver);
-            String filename = generateFilename(name);
-            saveScreenshotToFile(screenshot, filename);
-            
-            attachToAllure(screenshot, description);
+            String screenshot = captureScreenshotAsBase64(driver);
+            pipeline.submit(screenshot, Paths.get(SCREENSHOT_DIR, generateFilename(name)), description, getCropRegion());
             
             LogUtils.info("Custom screenshot taken: " + description);
             
@@ -86,6 +92,18 @@ public class ScreenshotUtils {
         }
     }
 
+    /**
+     * Remember the element the current step is checking, so failure screenshots
+     * can be cropped to it when cropToElement is enabled
+     */
+    public static void setElementUnderTest(By locator) {
+        elementUnderTest.set(locator);
+    }
+
+    public static void clearElementUnderTest() {
+        elementUnderTest.remove();
+    }
+
     /**
      * Take screenshot for debugging purposes
      */
@@ -97,7 +115,11 @@ public class ScreenshotUtils {
 
     /**
      * Capture screenshot as byte array
+     *
+     * @deprecated holds the whole image on the heap; use {@link #takeScreenshot(String)},
+     * which streams it to disk and attaches it by reference
      */
+    @Deprecated
     @Attachment(value = "Screenshot: {testName}", type = "image/png")
     public static byte[] captureScreenshotAsBytes(String testName) {
         try {
@@ -116,24 +138,39 @@ public class ScreenshotUtils {
         return ts.getScreenshotAs(OutputType.BYTES);
     }
 
+    private static String captureScreenshotAsBase64(WebDriver driver) {
+        return ((TakesScreenshot) driver).getScreenshotAs(OutputType.BASE64);
+    }
+
     private static String generateFilename(String baseName) {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS"));
         String sanitizedName = baseName.replaceAll("[^a-zA-Z0-9_-]", "_");
-        return sanitizedName + "_" + timestamp + ".png";
+        return sanitizedName + "_" + timestamp + "." + encoder.getExtension();
     }
 
-    private static Path saveScreenshotToFile(byte[] screenshot, String filename) throws IOException {
-        Path screenshotPath = Paths.get(SCREENSHOT_DIR, filename);
-        Files.write(screenshotPath, screenshot);
-        return screenshotPath;
-    }
-
-    private static void attachToAllure(byte[] screenshot, String description) {
+    /**
+     * Bounds of the element under test plus padding, from the current page snapshot;
+     * null when cropping is off or the element cannot be located
+     */
+    private static ScreenshotEncoder.Region getCropRegion() {
+        By locator = elementUnderTest.get();
+        if (!encoder.isCropToElement() || locator == null) {
+            return null;
+        }
         try {
-            Allure.addAttachment(description, "image/png", 
-                new java.io.ByteArrayInputStream(screenshot), ".png");
-        } catch (Exception e) {
-            LogUtils.warn("Failed to attach screenshot to Allure: " + e.getMessage());
+            PageSnapshot snapshot = PageSnapshot.get();
+            Rectangle bounds = snapshot.getBounds(locator);
+            Dimension screen = snapshot.getScreenSize();
+            if (bounds == null || screen == null) {
+                return null;
+            }
+            int padding = encoder.getCropPadding();
+            Rectangle padded = new Rectangle(bounds.getX() - padding, bounds.getY() - padding,
+                    bounds.getHeight() + 2 * padding, bounds.getWidth() + 2 * padding);
+            return new ScreenshotEncoder.Region(padded, screen.getWidth());
+        } catch (RuntimeException e) {
+            LogUtils.debug(LogCategory.ELEMENT, "Could not resolve crop region for {}: {}", locator, e.getMessage());
+            return null;
         }
     }
 
@@ -159,37 +196,25 @@ public class ScreenshotUtils {
     }
 
     /**
-     * Clean up old screenshots (keep only last N screenshots)
+     * Clean up old screenshots (keep only last N screenshots). Older screenshot
+     * links are removed and their stored images are deleted once nothing else
+     * refers to them; the artifact store's age and size quotas are applied too.
      */
     public static void cleanupOldScreenshots(int keepLastN) {
-        try {
-            Path directory = Paths.get(SCREENSHOT_DIR);
-            if (!Files.exists(directory)) {
-                return;
-            }
+        ArtifactStore.gc(keepLastN, "png", "jpg");
+    }
 
-            Files.list(directory)
-                .filter(path -> path.toString().endsWith(".png"))
-                .sorted((p1, p2) -> {
-                    try {
-                        return Files.getLastModifiedTime(p2).compareTo(Files.getLastModifiedTime(p1));
-                    } catch (IOException e) {
-                        return 0;
-                    }
-                })
-                .skip(keepLastN)
-                .forEach(path -> {
-                    try {
-                        Files.delete(path);
-                        LogUtils.debug("Deleted old screenshot: " + path.getFileName());
-                    } catch (IOException e) {
-                        LogUtils.warn("Failed to delete old screenshot: " + path.getFileName());
-                    }
-                });
+    /**
+     * Wait for queued screenshots to be written, e.g. at the end of the suite
+     */
+    public static void drain() {
+        pipeline.drain(DRAIN_TIMEOUT_MS);
+        LogUtils.config("Screenshot pipeline", pipeline.getStats());
+    }
 
-        } catch (IOException e) {
-            LogUtils.error("Failed to cleanup old screenshots", e);
-        }
+    private static int getIntValue(Map<String, Object> values, String key, int defaultValue) {
+        Object value = values.get(key);
+        return value != null ? Integer.parseInt(value.toString()) : defaultValue;
     }
 
     /**
@@ -0,0 +1,137 @@
+package utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Parameter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Groups log lines into one Allure step per logical step instead of one step per
+ * line. Steps, actions and verifications open a logical step; other log lines are
+ * buffered under the open step and written as a single "log" parameter when the
+ * next step opens or the test method ends. Which kinds open steps and which kinds
+ * are kept as lines is configurable with -Dallure.steps and -Dallure.stepLines
+ * (comma-separated kinds, "none" for none).
+ */
+public class StepAggregator {
+    public enum Kind {
+        STEP, ACTION, VERIFICATION, NAVIGATION, ELEMENT, DATA, INFO, WARN, ERROR, NETWORK, PERFORMANCE
+    }
+
+    private static final int MAX_LINES_PER_STEP = 200;
+    private static final Set<Kind> STEP_KINDS = parseKinds("allure.steps", "step,action,verification");
+    private static final Set<Kind> LINE_KINDS = parseKinds("allure.stepLines",
+            "navigation,element,data,info,warn,error,network,performance");
+    private static final ThreadLocal<OpenStep> openStep = new ThreadLocal<>();
+
+    /**
+     * Record a log line of the given kind for the current test
+     */
+    public static void record(Kind kind, String message) {
+        record(kind, message, false);
+    }
+
+    /**
+     * Record a log line; a failed step is marked as failed in the report
+     */
+    public static void record(Kind kind, String message, boolean failed) {
+        if (STEP_KINDS.contains(kind)) {
+            flush();
+            open(message, failed);
+        } else if (LINE_KINDS.contains(kind)) {
+            OpenStep current = openStep.get();
+            if (current == null || !current.belongsToCurrentTest()) {
+                flush();
+                current = open("Log", false);
+                if (current == null) {
+                    return;
+                }
+            }
+            current.addLine(kind, message);
+        }
+    }
+
+    /**
+     * Write the buffered lines of the open step, e.g. at the end of a test method
+     */
+    public static void flush() {
+        OpenStep current = openStep.get();
+        if (current != null) {
+            openStep.remove();
+            current.close();
+        }
+    }
+
+    private static OpenStep open(String name, boolean failed) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String parent = lifecycle.getCurrentTestCase().orElse(null);
+        if (parent == null) {
+            return null;
+        }
+
+        String uuid = UUID.randomUUID().toString();
+        StepResult result = new StepResult().setName(name).setStatus(failed ? Status.FAILED : Status.PASSED);
+        lifecycle.startStep(parent, uuid, result);
+        lifecycle.stopStep(uuid);
+
+        OpenStep step = new OpenStep(parent, result);
+        openStep.set(step);
+        return step;
+    }
+
+    private static Set<Kind> parseKinds(String property, String defaults) {
+        Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+        for (String kind : System.getProperty(property, defaults).split(",")) {
+            String trimmed = kind.trim();
+            if (!trimmed.isEmpty() && !trimmed.equalsIgnoreCase("none")) {
+                kinds.add(Kind.valueOf(trimmed.toUpperCase()));
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * Step already attached to its parent; lines are filled in when it is closed
+     */
+    private static class OpenStep {
+        private final String parentUuid;
+        private final StepResult result;
+        private final List<String> lines = new ArrayList<>();
+        private int droppedLines;
+
+        private OpenStep(String parentUuid, StepResult result) {
+            this.parentUuid = parentUuid;
+            this.result = result;
+        }
+
+        private boolean belongsToCurrentTest() {
+            return parentUuid.equals(Allure.getLifecycle().getCurrentTestCase().orElse(null));
+        }
+
+        private void addLine(Kind kind, String message) {
+            if (lines.size() < MAX_LINES_PER_STEP) {
+                lines.add(kind == Kind.INFO ? message : kind + ": " + message);
+            } else {
+                droppedLines++;
+            }
+        }
+
+        private void close() {
+            result.setStop(System.currentTimeMillis());
+            if (lines.isEmpty()) {
+                return;
+            }
+            if (droppedLines > 0) {
+                lines.add("... " + droppedLines + " more lines");
+            }
+            result.getParameters().add(new Parameter().setName("log").setValue(String.join("\n", lines)));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package utils;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+/**
+ * Writes the log lines grouped by {@link StepAggregator} into the report when a
+ * test or configuration method returns, before Allure stores its result.
+ */
+public class StepFlushListener implements IInvokedMethodListener {
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        StepAggregator.flush();
+    }
+}
@@ -0,0 +1,418 @@
+package utils;
+
+import io.qameta.allure.Allure;
+
+import javax.imageio.ImageIO;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compares screenshots with stored baseline images. Both images are split into
+ * square tiles; each tile is hashed with the ignore regions masked out and only
+ * tiles whose hashes differ are compared pixel by pixel, with a per-channel
+ * tolerance. Tiles are processed in parallel on a fork-join pool. Baselines
+ * are kept per screenshot resolution, so each device size on the grid has its
+ * own; their pixels and tile hashes are cached for the run. A missing baseline
+ * fails the check. The screenshot is written to target/ as a candidate, which
+ * is reviewed and copied into the baseline directory by hand; with
+ * visual.updateBaselines set every screen is recorded that way and passes.
+ * Nothing is ever written into the baseline directory itself.
+ */
+public class VisualComparator {
+    private static final int TILES_PER_TASK = 16;
+    private static final int DIFF_COLOR = 0xFF0000;
+    private static final int IGNORED_COLOR = 0x3050A0;
+    private static final int TILE_BORDER_COLOR = 0xFFD000;
+
+    private static final boolean ENABLED;
+    private static final Path BASELINE_DIR;
+    private static final Path OUTPUT_DIR;
+    private static final Path RECORDED_DIR;
+    private static final int TILE_SIZE;
+    private static final int CHANNEL_TOLERANCE;
+    private static final double MAX_DIFF_RATIO;
+    private static final int IGNORE_TOP_DP;
+    private static final boolean UPDATE_BASELINES = Boolean.getBoolean("visual.updateBaselines");
+    private static final ForkJoinPool pool;
+    private static final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+
+    static {
+        Map<String, Object> config = ConfigManager.getInstance().getVisualConfig("android");
+        ENABLED = Boolean.parseBoolean(String.valueOf(config.getOrDefault("enabled", true)));
+        BASELINE_DIR = Paths.get(String.valueOf(config.getOrDefault("baselineDir", "src/test/resources/visual-baselines/")));
+        OUTPUT_DIR = Paths.get(String.valueOf(config.getOrDefault("outputDir", "target/visual/")));
+        RECORDED_DIR = OUTPUT_DIR.resolve("recorded-baselines");
+        TILE_SIZE = getIntValue(config, "tileSize", 32);
+        CHANNEL_TOLERANCE = getIntValue(config, "channelTolerance", 12);
+        MAX_DIFF_RATIO = Double.parseDouble(String.valueOf(config.getOrDefault("maxDiffRatio", 0.002)));
+        IGNORE_TOP_DP = getIntValue(config, "ignoreTopDp", 0);
+        int parallelism = getIntValue(config, "parallelism", 0);
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Outcome of comparing one screenshot with its baseline
+     */
+    public static class Result {
+        private final String name;
+        private final boolean match;
+        private final String summary;
+
+        private Result(String name, boolean match, String summary) {
+            this.name = name;
+            this.match = match;
+            this.summary = summary;
+        }
+
+        public boolean isMatch() {
+            return match;
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + summary;
+        }
+    }
+
+    /**
+     * Compare a PNG screenshot with the named baseline for its resolution and
+     * attach the expected, actual and diff images to the report when they differ
+     *
+     * @param ignoreRegions areas to leave out, in the same coordinates as screenWidth
+     * @param screenWidth screen width the regions refer to, or 0 when they are in screenshot pixels
+     * @param unitsPerDp screen coordinates per density-independent pixel, used for visual.ignoreTopDp
+     */
+    public static Result verify(String name, byte[] png, List<Rectangle> ignoreRegions, int screenWidth, double unitsPerDp) {
+        if (!ENABLED) {
+            return new Result(name, true, "visual checks disabled");
+        }
+        try {
+            BufferedImage actualImage = ImageIO.read(new ByteArrayInputStream(png));
+            if (actualImage == null) {
+                throw new IOException("Screenshot is not a readable image");
+            }
+            String fileName = name.replaceAll("[^a-zA-Z0-9_-]", "_")
+                    + "_" + actualImage.getWidth() + "x" + actualImage.getHeight() + ".png";
+            Path baselinePath = BASELINE_DIR.resolve(fileName);
+            if (UPDATE_BASELINES || !Files.exists(baselinePath)) {
+                Path candidate = RECORDED_DIR.resolve(fileName);
+                Files.createDirectories(RECORDED_DIR);
+                Files.write(candidate, png);
+                attachFile("Visual " + name + " (recorded)", candidate);
+                if (UPDATE_BASELINES) {
+                    LogUtils.warn("Recorded visual baseline candidate " + candidate + ", review it and copy it to " + baselinePath);
+                    return new Result(name, true, "baseline recorded to " + candidate);
+                }
+                return new Result(name, false, "no baseline " + baselinePath + "; the screenshot was recorded to "
+                        + candidate + ", review it and copy it there, or run with -Dvisual.updateBaselines=true to record every screen");
+            }
+
+            double scale = screenWidth > 0 ? (double) actualImage.getWidth() / screenWidth : 1.0;
+            List<Rectangle> ignored = new ArrayList<>();
+            for (Rectangle region : ignoreRegions) {
+                ignored.add(new Rectangle((int) Math.floor(region.x * scale), (int) Math.floor(region.y * scale),
+                        (int) Math.ceil(region.width * scale), (int) Math.ceil(region.height * scale)));
+            }
+            if (IGNORE_TOP_DP > 0) {
+                ignored.add(new Rectangle(0, 0, actualImage.getWidth(), (int) Math.ceil(IGNORE_TOP_DP * unitsPerDp * scale)));
+            }
+
+            Baseline baseline = getBaseline(fileName, baselinePath, ignored);
+            if (baseline.width != actualImage.getWidth() || baseline.height != actualImage.getHeight()) {
+                Path actualPath = writeOutput(fileName, "actual", png);
+                attach(name, baselinePath, actualPath, null);
+                return new Result(name, false, "size " + actualImage.getWidth() + "x" + actualImage.getHeight()
+                        + " differs from baseline " + baseline.width + "x" + baseline.height);
+            }
+
+            long start = System.nanoTime();
+            Comparison comparison = compare(baseline, pixelsOf(actualImage));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            double ratio = (double) comparison.diffPixels / comparison.comparedPixels;
+            boolean match = ratio <= MAX_DIFF_RATIO;
+            String summary = String.format("%d pixels differ (%.4f%%) in %d of %d tiles, %d ms",
+                    comparison.diffPixels, ratio * 100, comparison.changedTiles, comparison.tileCount, elapsedMs);
+            LogUtils.info(LogCategory.PERFORMANCE, "Visual comparison {}: {}", name, summary);
+
+            if (comparison.diffPixels > 0) {
+                Path actualPath = writeOutput(fileName, "actual", png);
+                Path diffPath = OUTPUT_DIR.resolve(fileName.replace(".png", "_diff.png"));
+                Files.createDirectories(OUTPUT_DIR);
+                ImageIO.write(comparison.diffImage, "png", diffPath.toFile());
+                if (!match) {
+                    attach(name, baselinePath, actualPath, diffPath);
+                }
+            }
+            return new Result(name, match, summary);
+        } catch (IOException e) {
+            throw new RuntimeException("Visual comparison failed for " + name, e);
+        }
+    }
+
+    private static Comparison compare(Baseline baseline, int[] actual) {
+        boolean[] ignored = baseline.ignored;
+        int tileCount = baseline.tileHashes.length();
+        AtomicInteger diffPixels = new AtomicInteger();
+        AtomicInteger changedTiles = new AtomicInteger();
+        int[] diff = new int[actual.length];
+
+        pool.invoke(new TileTask(0, tileCount, tile -> {
+            if (hashTile(actual, ignored, baseline.width, baseline.height, tile) == baseline.tileHashes.get(tile)) {
+                dimTile(actual, ignored, diff, baseline.width, baseline.height, tile);
+                return;
+            }
+            int tileDiff = diffTile(baseline.pixels, actual, ignored, diff, baseline.width, baseline.height, tile);
+            if (tileDiff > 0) {
+                diffPixels.addAndGet(tileDiff);
+                changedTiles.incrementAndGet();
+                outlineTile(diff, baseline.width, baseline.height, tile);
+            }
+        }));
+
+        int comparedPixels = 0;
+        for (boolean skip : ignored) {
+            if (!skip) {
+                comparedPixels++;
+            }
+        }
+        BufferedImage diffImage = new BufferedImage(baseline.width, baseline.height, BufferedImage.TYPE_INT_RGB);
+        diffImage.setRGB(0, 0, baseline.width, baseline.height, diff, 0, baseline.width);
+        return new Comparison(diffPixels.get(), Math.max(1, comparedPixels), changedTiles.get(), tileCount, diffImage);
+    }
+
+    /**
+     * Pixel count and diff image of one comparison
+     */
+    private static class Comparison {
+        final int diffPixels;
+        final int comparedPixels;
+        final int changedTiles;
+        final int tileCount;
+        final BufferedImage diffImage;
+
+        private Comparison(int diffPixels, int comparedPixels, int changedTiles, int tileCount, BufferedImage diffImage) {
+            this.diffPixels = diffPixels;
+            this.comparedPixels = comparedPixels;
+            this.changedTiles = changedTiles;
+            this.tileCount = tileCount;
+            this.diffImage = diffImage;
+        }
+    }
+
+    /**
+     * Baseline pixels with their ignore mask and per-tile hashes
+     */
+    private static class Baseline {
+        private final int width;
+        private final int height;
+        private final int[] pixels;
+        private final boolean[] ignored;
+        private final AtomicLongArray tileHashes;
+        private final String ignoreKey;
+
+        private Baseline(BufferedImage image, List<Rectangle> ignoreRegions) {
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.pixels = pixelsOf(image);
+            this.ignored = mask(width, height, ignoreRegions);
+            this.ignoreKey = ignoreRegions.toString();
+            int tiles = tilesAcross(width) * tilesAcross(height);
+            this.tileHashes = new AtomicLongArray(tiles);
+            pool.invoke(new TileTask(0, tiles, tile -> tileHashes.set(tile, hashTile(pixels, ignored, width, height, tile))));
+        }
+    }
+
+    /**
+     * Runs an action for a range of tiles, splitting the range across the pool
+     */
+    private static class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final TileAction action;
+
+        private TileTask(int from, int to, TileAction action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILES_PER_TASK) {
+                for (int tile = from; tile < to; tile++) {
+                    action.apply(tile);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(from, middle, action), new TileTask(middle, to, action));
+        }
+    }
+
+    private interface TileAction {
+        void apply(int tile);
+    }
+
+    private static Baseline getBaseline(String fileName, Path path, List<Rectangle> ignoreRegions) throws IOException {
+        Baseline cached = baselines.get(fileName);
+        if (cached != null && cached.ignoreKey.equals(ignoreRegions.toString())) {
+            return cached;
+        }
+        BufferedImage image = ImageIO.read(path.toFile());
+        if (image == null) {
+            throw new IOException("Baseline is not a readable image: " + path);
+        }
+        Baseline baseline = new Baseline(image, ignoreRegions);
+        baselines.put(fileName, baseline);
+        return baseline;
+    }
+
+    private static long hashTile(int[] pixels, boolean[] ignored, int width, int height, int tile) {
+        long hash = 0xcbf29ce484222325L;
+        int columns = tilesAcross(width);
+        int x0 = (tile % columns) * TILE_SIZE;
+        int y0 = (tile / columns) * TILE_SIZE;
+        int x1 = Math.min(x0 + TILE_SIZE, width);
+        int y1 = Math.min(y0 + TILE_SIZE, height);
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                int pixel = ignored[row + x] ? 0 : pixels[row + x] & 0xFFFFFF;
+                hash = (hash ^ pixel) * 0x100000001b3L;
+            }
+        }
+        return hash;
+    }
+
+    private static int diffTile(int[] expected, int[] actual, boolean[] ignored, int[] diff, int width, int height, int tile) {
+        int columns = tilesAcross(width);
+        int x0 = (tile % columns) * TILE_SIZE;
+        int y0 = (tile / columns) * TILE_SIZE;
+        int x1 = Math.min(x0 + TILE_SIZE, width);
+        int y1 = Math.min(y0 + TILE_SIZE, height);
+        int count = 0;
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                int index = row + x;
+                if (ignored[index]) {
+                    diff[index] = IGNORED_COLOR;
+                } else if (differs(expected[index], actual[index])) {
+                    diff[index] = DIFF_COLOR;
+                    count++;
+                } else {
+                    diff[index] = dim(actual[index]);
+                }
+            }
+        }
+        return count;
+    }
+
+    private static void dimTile(int[] actual, boolean[] ignored, int[] diff, int width, int height, int tile) {
+        int columns = tilesAcross(width);
+        int x0 = (tile % columns) * TILE_SIZE;
+        int y0 = (tile / columns) * TILE_SIZE;
+        int x1 = Math.min(x0 + TILE_SIZE, width);
+        int y1 = Math.min(y0 + TILE_SIZE, height);
+        for (int y = y0; y < y1; y++) {
+            int row = y * width;
+            for (int x = x0; x < x1; x++) {
+                diff[row + x] = ignored[row + x] ? IGNORED_COLOR : dim(actual[row + x]);
+            }
+        }
+    }
+
+    private static void outlineTile(int[] diff, int width, int height, int tile) {
+        int columns = tilesAcross(width);
+        int x0 = (tile % columns) * TILE_SIZE;
+        int y0 = (tile / columns) * TILE_SIZE;
+        int x1 = Math.min(x0 + TILE_SIZE, width) - 1;
+        int y1 = Math.min(y0 + TILE_SIZE, height) - 1;
+        for (int x = x0; x <= x1; x++) {
+            diff[y0 * width + x] = TILE_BORDER_COLOR;
+            diff[y1 * width + x] = TILE_BORDER_COLOR;
+        }
+        for (int y = y0; y <= y1; y++) {
+            diff[y * width + x0] = TILE_BORDER_COLOR;
+            diff[y * width + x1] = TILE_BORDER_COLOR;
+        }
+    }
+
+    private static boolean differs(int expected, int actual) {
+        return Math.abs(((expected >> 16) & 0xFF) - ((actual >> 16) & 0xFF)) > CHANNEL_TOLERANCE
+                || Math.abs(((expected >> 8) & 0xFF) - ((actual >> 8) & 0xFF)) > CHANNEL_TOLERANCE
+                || Math.abs((expected & 0xFF) - (actual & 0xFF)) > CHANNEL_TOLERANCE;
+    }
+
+    /**
+     * Grey, darkened version of a pixel so differences stand out in the diff image
+     */
+    private static int dim(int pixel) {
+        int gray = (((pixel >> 16) & 0xFF) + ((pixel >> 8) & 0xFF) + (pixel & 0xFF)) / 3;
+        int value = 40 + gray / 3;
+        return (value << 16) | (value << 8) | value;
+    }
+
+    private static boolean[] mask(int width, int height, List<Rectangle> regions) {
+        boolean[] ignored = new boolean[width * height];
+        for (Rectangle region : regions) {
+            Rectangle clipped = region.intersection(new Rectangle(0, 0, width, height));
+            for (int y = clipped.y; y < clipped.y + clipped.height; y++) {
+                for (int x = clipped.x; x < clipped.x + clipped.width; x++) {
+                    ignored[y * width + x] = true;
+                }
+            }
+        }
+        return ignored;
+    }
+
+    private static int[] pixelsOf(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+
+    private static int tilesAcross(int size) {
+        return (size + TILE_SIZE - 1) / TILE_SIZE;
+    }
+
+    private static Path writeOutput(String fileName, String suffix, byte[] png) throws IOException {
+        Files.createDirectories(OUTPUT_DIR);
+        Path path = OUTPUT_DIR.resolve(fileName.replace(".png", "_" + suffix + ".png"));
+        Files.write(path, png);
+        return path;
+    }
+
+    private static void attach(String name, Path expected, Path actual, Path diff) throws IOException {
+        attachFile("Visual " + name + " (expected)", expected);
+        attachFile("Visual " + name + " (actual)", actual);
+        if (diff != null) {
+            attachFile("Visual " + name + " (diff)", diff);
+        }
+    }
+
+    private static void attachFile(String title, Path file) throws IOException {
+        try (InputStream content = Files.newInputStream(file)) {
+            Allure.addAttachment(title, "image/png", content, ".png");
+        }
+    }
+
+    private static int getIntValue(Map<String, Object> values, String key, int defaultValue) {
+        Object value = values.get(key);
+        return value != null ? Integer.parseInt(value.toString()) : defaultValue;
+    }
+}
@@ -0,0 +1,188 @@
+package utils;
+
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Reusable polling wait with adaptive backoff. The first poll happens immediately
+ * and, when the condition already holds, returns without allocating anything.
+ * Later polls start at the initial interval and back off up to the maximum.
+ * Each thread can read how many polls its last wait took and how long it slept.
+ * Element lookups made while waiting run with the implicit wait switched off.
+ */
+public class WaitEngine {
+    private static final AtomicLong totalWaits = new AtomicLong();
+    private static final AtomicLong totalFastPathHits = new AtomicLong();
+    private static final AtomicLong totalPolls = new AtomicLong();
+    private static final AtomicLong totalSleptNanos = new AtomicLong();
+    private static final ThreadLocal<WaitStats> lastStats = ThreadLocal.withInitial(WaitStats::new);
+
+    private final long initialPollNanos;
+    private final long maxPollNanos;
+    private final double backoff;
+    private final List<Class<? extends Throwable>> ignoredExceptions;
+
+    public WaitEngine(Duration initialPoll, Duration maxPoll, double backoff,
+                      List<Class<? extends Throwable>> ignoredExceptions) {
+        if (backoff < 1.0) {
+            throw new IllegalArgumentException("Backoff must be at least 1.0 but was " + backoff);
+        }
+        this.initialPollNanos = initialPoll.toNanos();
+        this.maxPollNanos = Math.max(maxPoll.toNanos(), initialPollNanos);
+        this.backoff = backoff;
+        this.ignoredExceptions = List.copyOf(ignoredExceptions);
+    }
+
+    /**
+     * Poll the condition against the current driver until it returns a non-null,
+     * non-false value or the timeout expires
+     *
+     * @throws TimeoutException when the condition never held
+     */
+    public <T> T until(Function<? super WebDriver, T> condition, Duration timeout) {
+        return until(condition, timeout.toNanos());
+    }
+
+    public <T> T until(Function<? super WebDriver, T> condition, int timeoutInSeconds) {
+        return until(condition, timeoutInSeconds * 1_000_000_000L);
+    }
+
+    private <T> T until(Function<? super WebDriver, T> condition, long timeoutNanos) {
+        WaitStrategyManager.enterExplicitWait();
+        try {
+            return poll(condition, timeoutNanos);
+        } finally {
+            WaitStrategyManager.exitExplicitWait();
+        }
+    }
+
+    private <T> T poll(Function<? super WebDriver, T> condition, long timeoutNanos) {
+        WebDriver driver = DriverUtils.getDriver();
+        WaitStats stats = lastStats.get();
+        stats.reset();
+        totalWaits.incrementAndGet();
+        long start = System.nanoTime();
+
+        T value = evaluate(condition, driver, stats);
+        if (isSatisfied(value)) {
+            totalFastPathHits.incrementAndGet();
+            return finish(value, stats, start);
+        }
+
+        long deadline = start + timeoutNanos;
+        long interval = initialPollNanos;
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                finish(null, stats, start);
+                throw new TimeoutException("Condition " + condition + " not met after " + timeoutNanos / 1_000_000
+                        + "ms (" + stats.polls + " polls, " + stats.sleptNanos / 1_000_000 + "ms slept)",
+                        stats.lastError);
+            }
+
+            sleep(Math.min(interval, remaining), stats);
+            value = evaluate(condition, driver, stats);
+            if (isSatisfied(value)) {
+                return finish(value, stats, start);
+            }
+            interval = Math.min((long) (interval * backoff), maxPollNanos);
+        }
+    }
+
+    /**
+     * Statistics of the most recent wait on the calling thread. The returned
+     * object is reused by the next wait on the same thread.
+     */
+    public static WaitStats getLastWaitStats() {
+        return lastStats.get();
+    }
+
+    public static String getSummary() {
+        return "waits=" + totalWaits.get()
+                + ", fastPath=" + totalFastPathHits.get()
+                + ", polls=" + totalPolls.get()
+                + ", slept=" + totalSleptNanos.get() / 1_000_000 + "ms";
+    }
+
+    private <T> T evaluate(Function<? super WebDriver, T> condition, WebDriver driver, WaitStats stats) {
+        stats.polls++;
+        try {
+            return condition.apply(driver);
+        } catch (RuntimeException e) {
+            if (!isIgnored(e)) {
+                throw e;
+            }
+            stats.lastError = e;
+            return null;
+        }
+    }
+
+    private boolean isIgnored(Throwable error) {
+        for (Class<? extends Throwable> ignored : ignoredExceptions) {
+            if (ignored.isInstance(error)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSatisfied(Object value) {
+        return value != null && !Boolean.FALSE.equals(value);
+    }
+
+    private static void sleep(long nanos, WaitStats stats) {
+        long before = System.nanoTime();
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting", e);
+        } finally {
+            stats.sleptNanos += System.nanoTime() - before;
+        }
+    }
+
+    private static <T> T finish(T value, WaitStats stats, long start) {
+        stats.elapsedNanos = System.nanoTime() - start;
+        totalPolls.addAndGet(stats.polls);
+        totalSleptNanos.addAndGet(stats.sleptNanos);
+        return value;
+    }
+
+    public static class WaitStats {
+        private int polls;
+        private long sleptNanos;
+        private long elapsedNanos;
+        private Throwable lastError;
+
+        private void reset() {
+            polls = 0;
+            sleptNanos = 0;
+            elapsedNanos = 0;
+            lastError = null;
+        }
+
+        public int getPolls() {
+            return polls;
+        }
+
+        public long getSleptMillis() {
+            return sleptNanos / 1_000_000;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedNanos / 1_000_000;
+        }
+
+        @Override
+        public String toString() {
+            return polls + " polls, " + getSleptMillis() + "ms slept, " + getElapsedMillis() + "ms elapsed";
+        }
+    }
+}
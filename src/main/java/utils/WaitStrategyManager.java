@@ -0,0 +1,83 @@
+package utils;
+
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Owns a session's implicit wait so it never multiplies with explicit waits.
+ * While an explicit wait or presence probe runs on a thread, element lookups
+ * from that thread are sent with an implicit wait of zero; outside of them the
+ * configured default applies. The session value is cached and only changed,
+ * lazily before the next element lookup, when it differs from what is needed.
+ */
+public class WaitStrategyManager {
+    private static final Set<String> FIND_COMMANDS = Set.of(
+            DriverCommand.FIND_ELEMENT,
+            DriverCommand.FIND_ELEMENTS,
+            DriverCommand.FIND_CHILD_ELEMENT,
+            DriverCommand.FIND_CHILD_ELEMENTS);
+    private static final ThreadLocal<int[]> explicitWaitDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private volatile long defaultImplicitMs = -1;
+    private volatile long sessionImplicitMs = -1;
+    private long timeoutCommandsSent;
+    private long timeoutCommandsSkipped;
+
+    public static void enterExplicitWait() {
+        explicitWaitDepth.get()[0]++;
+    }
+
+    public static void exitExplicitWait() {
+        int[] depth = explicitWaitDepth.get();
+        if (depth[0] > 0) {
+            depth[0]--;
+        }
+    }
+
+    public static boolean isInExplicitWait() {
+        return explicitWaitDepth.get()[0] > 0;
+    }
+
+    /**
+     * Observe a command before it is sent. Returns the timeouts command that has
+     * to be sent first to bring the session's implicit wait in line, or null.
+     */
+    public synchronized Command beforeCommand(Command command) {
+        if (DriverCommand.SET_TIMEOUT.equals(command.getName())) {
+            Object implicit = command.getParameters().get("implicit");
+            if (implicit instanceof Number) {
+                defaultImplicitMs = ((Number) implicit).longValue();
+                sessionImplicitMs = defaultImplicitMs;
+            }
+            return null;
+        }
+
+        if (!FIND_COMMANDS.contains(command.getName()) || defaultImplicitMs < 0) {
+            return null;
+        }
+
+        long wanted = isInExplicitWait() ? 0 : defaultImplicitMs;
+        if (wanted == sessionImplicitMs) {
+            timeoutCommandsSkipped++;
+            return null;
+        }
+        sessionImplicitMs = wanted;
+        timeoutCommandsSent++;
+        return new Command(command.getSessionId(), DriverCommand.SET_TIMEOUT, Map.of("implicit", wanted));
+    }
+
+    /**
+     * Forget the cached session value, e.g. after a failed timeouts command
+     */
+    public synchronized void invalidate() {
+        sessionImplicitMs = -1;
+    }
+
+    public synchronized String getStats() {
+        return "default=" + defaultImplicitMs + "ms, current=" + sessionImplicitMs
+                + "ms, switches=" + timeoutCommandsSent + ", skipped=" + timeoutCommandsSkipped;
+    }
+}
@@ -1,8 +1,13 @@
 package utils;
 
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+import io.appium.java_client.appmanagement.ApplicationState;
 import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.TimeoutException;
 import data.TestDataManager;
@@ -12,14 +17,21 @@ import java.util.List;
 
 public class WaitUtils {
     private static final TestDataManager testData = TestDataManager.getInstance();
+    private static final Duration SETTLE_POLL_INTERVAL = Duration.ofMillis(250);
+    private static final List<Class<? extends Throwable>> IGNORED_EXCEPTIONS =
+            List.of(NoSuchElementException.class, StaleElementReferenceException.class);
+    
+    private static final WaitEngine ELEMENT_WAIT =
+            new WaitEngine(Duration.ofMillis(50), Duration.ofMillis(500), 1.6, IGNORED_EXCEPTIONS);
+    private static final WaitEngine SETTLE_WAIT =
+            new WaitEngine(SETTLE_POLL_INTERVAL, SETTLE_POLL_INTERVAL, 1.0, IGNORED_EXCEPTIONS);
     
     public static WebElement waitForElementToBeVisible(By locator) {
         return waitForElementToBeVisible(locator, testData.getTimeout("medium"));
     }
     
     public static WebElement waitForElementToBeVisible(By locator, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(DriverUtils.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return ELEMENT_WAIT.until(ExpectedConditions.visibilityOfElementLocated(locator), timeoutInSeconds);
     }
     
     public static WebElement waitForElementToBeClickable(By locator) {
@@ -27,8 +39,7 @@ public class WaitUtils {
     }
     
     public static WebElement waitForElementToBeClickable(By locator, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(DriverUtils.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        return ELEMENT_WAIT.until(ExpectedConditions.elementToBeClickable(locator), timeoutInSeconds);
     }
     
     public static boolean waitForElementToDisappear(By locator) {
@@ -37,8 +48,7 @@ public class WaitUtils {
     
     public static boolean waitForElementToDisappear(By locator, int timeoutInSeconds) {
         try {
-            WebDriverWait wait = new WebDriverWait(DriverUtils.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.invisibilityOfElementLocated(locator));
+            return ELEMENT_WAIT.until(ExpectedConditions.invisibilityOfElementLocated(locator), timeoutInSeconds);
         } catch (TimeoutException e) {
             return false;
         }
@@ -49,8 +59,7 @@ public class WaitUtils {
     }
     
     public static WebElement waitForElementWithText(By locator, String expectedText, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(DriverUtils.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.textToBePresentInElementLocated(locator, expectedText)) ?
+        return ELEMENT_WAIT.until(ExpectedConditions.textToBePresentInElementLocated(locator, expectedText), timeoutInSeconds) ?
                 DriverUtils.getDriver().findElement(locator) : null;
     }
     
@@ -59,8 +68,7 @@ public class WaitUtils {
     }
     
     public static List<WebElement> waitForElementsToBeVisible(By locator, int timeoutInSeconds) {
-        WebDriverWait wait = new WebDriverWait(DriverUtils.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-        return wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator));
+        return ELEMENT_WAIT.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(locator), timeoutInSeconds);
     }
     
     public static boolean waitForTextToBePresent(By locator, String text) {
@@ -69,8 +77,7 @@ public class WaitUtils {
     
     public static boolean waitForTextToBePresent(By locator, String text, int timeoutInSeconds) {
         try {
-            WebDriverWait wait = new WebDriverWait(DriverUtils.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            return wait.until(ExpectedConditions.textToBePresentInElementLocated(locator, text));
+            return ELEMENT_WAIT.until(ExpectedConditions.textToBePresentInElementLocated(locator, text), timeoutInSeconds);
         } catch (TimeoutException e) {
             return false;
         }
@@ -82,23 +89,82 @@ public class WaitUtils {
     
     public static boolean isElementPresent(By locator, int timeoutInSeconds) {
         try {
-            WebDriverWait wait = new WebDriverWait(DriverUtils.getDriver(), Duration.ofSeconds(timeoutInSeconds));
-            wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+            ELEMENT_WAIT.until(ExpectedConditions.presenceOfElementLocated(locator), timeoutInSeconds);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Single presence probe with no waiting, for optional elements on a page that is already loaded
+     */
+    public static boolean isElementPresentNow(By locator) {
+        try {
+            ELEMENT_WAIT.until(ExpectedConditions.presenceOfElementLocated(locator), 0);
             return true;
         } catch (TimeoutException e) {
             return false;
         }
     }
     
+    /**
+     * Bounds of an element from a single lookup with no waiting, or null when it is not present
+     */
+    public static Rectangle getElementRectNow(By locator) {
+        try {
+            return ELEMENT_WAIT.until(driver -> driver.findElement(locator).getRect(), 0);
+        } catch (TimeoutException e) {
+            return null;
+        }
+    }
+    
     public static void waitForPageToLoad() {
         waitForPageToLoad(testData.getTimeout("pageLoad"));
     }
     
     public static void waitForPageToLoad(int timeoutInSeconds) {
+        waitForUiToSettle(timeoutInSeconds);
+    }
+    
+    public static boolean waitForUiToSettle() {
+        return waitForUiToSettle(testData.getTimeout("short"));
+    }
+    
+    public static boolean waitForUiToSettle(int timeoutInSeconds) {
+        String[] previousSource = {null};
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+            SETTLE_WAIT.until(driver -> {
+                String currentSource = driver.getPageSource();
+                boolean settled = currentSource.equals(previousSource[0]);
+                previousSource[0] = currentSource;
+                return settled;
+            }, timeoutInSeconds);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+    
+    public static boolean waitForAppInForeground(String appId, int timeoutInSeconds) {
+        AppiumDriver driver = DriverUtils.getDriver();
+        if (!(driver instanceof InteractsWithApps)) {
+            return true;
         }
+        
+        try {
+            SETTLE_WAIT.until(d -> ((InteractsWithApps) driver).queryAppState(appId) == ApplicationState.RUNNING_IN_FOREGROUND,
+                    timeoutInSeconds);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Poll count and sleep time of the calling thread's most recent wait
+     */
+    public static WaitEngine.WaitStats getLastWaitStats() {
+        return WaitEngine.getLastWaitStats();
     }
-} 
\ No newline at end of file
+}
@@ -1,26 +1,33 @@
 package tests;
 
 import io.appium.java_client.AppiumDriver;
-import io.qameta.allure.Attachment;
-import org.apache.commons.io.FileUtils;
-import org.openqa.selenium.OutputType;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
+import utils.ArtifactStore;
+import utils.CheckpointManager;
+import utils.CommandMetrics;
 import utils.ConfigManager;
 import utils.DriverUtils;
+import utils.FrameRecorder;
+import utils.LocatorCompiler;
+import utils.LogCategory;
 import utils.LogUtils;
 import utils.ScreenshotUtils;
+import utils.WaitEngine;
+import utils.WaitUtils;
 import data.TestDataManager;
 import pages.SplashPage;
 import pages.PasscodePage;
 import pages.NotificationPage;
+import pages.PageCache;
+import pages.ScreenClassifier;
+import pages.ScreenNavigator;
 import pages.WalletReadyPage;
 import pages.DashboardPage;
 
-import java.io.File;
-import java.io.IOException;
-
 public class BaseTest {
+    private static final String DASHBOARD_CHECKPOINT = "dashboard";
+    
     protected ConfigManager config;
     protected TestDataManager testData;
     
@@ -54,12 +61,15 @@ public class BaseTest {
         LogUtils.config("Platform", platform);
         
         long setupStart = System.currentTimeMillis();
-        DriverUtils.initializeDriver(platform);
+        DriverUtils.leaseDriver(platform);
         waitForAppToLoad();
         long setupTime = System.currentTimeMillis() - setupStart;
         
         LogUtils.performance("Test setup", setupTime);
         LogUtils.info("Test environment ready for: " + testName);
+        CommandMetrics.startTest();
+        ScreenshotUtils.clearElementUnderTest();
+        ArtifactStore.setCurrentTest(testName);
     }
     
     @AfterMethod
@@ -73,10 +83,14 @@ public class BaseTest {
             handleTestFailure(result);
         }
         
+        CommandMetrics.dumpTest(testName);
+        LogUtils.config("Implicit wait arbitration", DriverUtils.getWaitStrategyStats());
+        
         if (DriverUtils.isDriverInitialized()) {
-            DriverUtils.quitDriver();
-            LogUtils.info("Driver cleaned up successfully");
+            DriverUtils.releaseDriver();
+            LogUtils.info("Driver released successfully");
         }
+        PageCache.clear();
         
         LogUtils.config("Test teardown completed for", testName);
     }
@@ -86,8 +100,16 @@ public class BaseTest {
         LogUtils.info("=== TEST SUITE TEARDOWN STARTED ===");
         
         cleanupResources();
+        ScreenshotUtils.drain();
+        LogUtils.config("Artifact store", ArtifactStore.getStats());
+        CommandMetrics.dumpSuite();
+        LogUtils.config("Wait engine stats", WaitEngine.getSummary());
+        LogUtils.config("Locator compiler", LocatorCompiler.getReport());
+        LogUtils.config("Screen transition costs", ScreenNavigator.getCostSummary());
+        LogUtils.config("Log events dropped", String.valueOf(LogUtils.getDroppedCount()));
         
         LogUtils.info("=== TEST SUITE TEARDOWN COMPLETED ===");
+        LogUtils.flush();
     }
     
     protected AppiumDriver getDriver() {
@@ -95,29 +117,28 @@ public class BaseTest {
     }
     
     protected SplashPage getSplashPage() {
-        return new SplashPage(getDriver());
+        return PageCache.get(SplashPage.class, getDriver());
     }
     
     protected PasscodePage getPasscodePage() {
-        return new PasscodePage(getDriver());
+        return PageCache.get(PasscodePage.class, getDriver());
     }
     
     protected NotificationPage getNotificationPage() {
-        return new NotificationPage(getDriver());
+        return PageCache.get(NotificationPage.class, getDriver());
     }
     
     protected WalletReadyPage getWalletReadyPage() {
-        return new WalletReadyPage(getDriver());
+        return PageCache.get(WalletReadyPage.class, getDriver());
     }
     
     protected DashboardPage getDashboardPage() {
-        return new DashboardPage(getDriver());
+        return PageCache.get(DashboardPage.class, getDriver());
     }
     
     protected void navigateToPasscodePage() {
         LogUtils.step("Navigating to Passcode page");
-        SplashPage splashPage = getSplashPage();
-        splashPage.verifyPageIsLoaded().clickCreateNewWallet();
+        ScreenNavigator.navigateTo(PasscodePage.class);
         LogUtils.pageNavigation("Splash Page", "Passcode Page");
     }
     
@@ -130,8 +151,7 @@ public class BaseTest {
     
     protected void navigateToNotificationPage() {
         LogUtils.step("Navigating to Notification page");
-        navigateToPasscodePage();
-        createPasscode(testData.getValidPasscode());
+        ScreenNavigator.navigateTo(NotificationPage.class);
         LogUtils.pageNavigation("Passcode Page", "Notification Page");
     }
     
@@ -144,17 +164,30 @@ public class BaseTest {
     
     protected void navigateToWalletReadyPage() {
         LogUtils.step("Navigating to Wallet Ready page");
-        navigateToNotificationPage();
-        enableNotifications();
+        ScreenNavigator.navigateTo(WalletReadyPage.class);
         LogUtils.pageNavigation("Notification Page", "Wallet Ready Page");
     }
     
     protected void navigateToDashboard() {
         LogUtils.step("Navigating to Dashboard");
-        navigateToWalletReadyPage();
-        WalletReadyPage walletReadyPage = getWalletReadyPage();
-        walletReadyPage.verifyPageIsLoaded().clickSkip();
+        if (ScreenClassifier.classify() == DashboardPage.class) {
+            LogUtils.info("Already on Dashboard");
+            return;
+        }
+        
+        if (CheckpointManager.restore(DASHBOARD_CHECKPOINT)) {
+            if (getDashboardPage().isPageLoaded()) {
+                LogUtils.pageNavigation("Checkpoint", "Dashboard");
+                return;
+            }
+            LogUtils.warn("Dashboard checkpoint did not land on Dashboard, replaying onboarding");
+            DriverUtils.clearAppState(System.getProperty("platform", "android"));
+            waitForAppToLoad();
+        }
+        
+        ScreenNavigator.navigateTo(DashboardPage.class);
         LogUtils.pageNavigation("Wallet Ready Page", "Dashboard");
+        CheckpointManager.capture(DASHBOARD_CHECKPOINT);
     }
     
     protected void restartApp() {
@@ -175,15 +208,15 @@ public class BaseTest {
     
     private void waitForAppToLoad() {
         LogUtils.info("Waiting for application to load");
-        long appLoadTimeout = testData.getTimeout("appLaunch") * 1000L;
+        int appLoadTimeout = testData.getTimeout("pageLoad");
+        String appId = DriverUtils.getAppId(System.getProperty("platform", "android"));
         
-        try {
-            Thread.sleep(appLoadTimeout);
-            LogUtils.info("Application load wait completed");
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LogUtils.error("Application load wait interrupted", e);
+        if (!WaitUtils.waitForAppInForeground(appId, appLoadTimeout)) {
+            LogUtils.warn("Application did not reach the foreground within " + appLoadTimeout + " seconds");
+            return;
         }
+        getSplashPage().waitForPageToAppear(testData.getTimeout("appLaunch"));
+        LogUtils.info("Application load wait completed");
     }
     
     private void handleTestFailure(ITestResult result) {
@@ -192,7 +225,9 @@ public class BaseTest {
         
         LogUtils.error("Test failed: " + testName, throwable);
         
-        if (config.getScreenshotConfig("android").get("onFailure").equals(true)) {
+        if (DriverUtils.isDriverInitialized() && FrameRecorder.attachRecording(getDriver(), testName + "_failure")) {
+            LogUtils.info("Failure recording attached for: " + testName);
+        } else if (config.getScreenshotConfig("android").get("onFailure").equals(true)) {
             try {
                 ScreenshotUtils.takeScreenshot(testName + "_failure");
                 LogUtils.info("Failure screenshot captured for: " + testName);
@@ -202,6 +237,7 @@ public class BaseTest {
         }
         
         logTestFailureDetails(result);
+        LogUtils.flush();
     }
     
     private void logTestFailureDetails(ITestResult result) {
@@ -219,10 +255,10 @@ public class BaseTest {
         
         try {
             if (DriverUtils.isDriverInitialized()) {
-                LogUtils.debug("Driver is active, app state available for debugging");
+                LogUtils.error("Screen at failure: " + ScreenClassifier.describeCurrentScreen());
             }
         } catch (Exception e) {
-            LogUtils.debug("Could not determine current app state: " + e.getMessage());
+            LogUtils.debug(LogCategory.GENERAL, "Could not determine current app state: {}", e.getMessage());
         }
     }
     
@@ -241,6 +277,10 @@ public class BaseTest {
                 DriverUtils.quitDriver();
                 LogUtils.info("Final driver cleanup completed");
             }
+            
+            String platform = System.getProperty("platform", "android");
+            LogUtils.config("Driver pool stats", DriverUtils.getPoolStats(platform));
+            DriverUtils.shutdownPools();
         
             LogUtils.info("All test resources cleaned up");
             
@@ -249,16 +289,12 @@ public class BaseTest {
         }
     }
     
-    @Attachment(value = "Test Failure Screenshot", type = "image/png")
-    public byte[] captureFailureScreenshot() {
-        try {
-            if (DriverUtils.isDriverInitialized()) {
-                File screenshot = DriverUtils.getDriver().getScreenshotAs(OutputType.FILE);
-                return FileUtils.readFileToByteArray(screenshot);
-            }
-        } catch (IOException e) {
-            LogUtils.error("Failed to capture failure screenshot", e);
+    /**
+     * Capture a failure screenshot; it is streamed to disk and attached to Allure by reference
+     */
+    public void captureFailureScreenshot() {
+        if (DriverUtils.isDriverInitialized()) {
+            ScreenshotUtils.takeScreenshot("test_failure", "Test Failure Screenshot");
         }
-        return new byte[0];
     }
 }
\ No newline at end of file
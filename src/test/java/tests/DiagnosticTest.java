@@ -6,7 +6,9 @@ import org.openqa.selenium.WebElement;
 import org.testng.annotations.Test;
 import pages.WalletReadyPage;
 import pages.DashboardPage;
+import utils.ArtifactStore;
 import utils.LogUtils;
+import utils.WaitUtils;
 
 import java.util.List;
 
@@ -57,7 +59,7 @@ public class DiagnosticTest extends BaseTest {
         LogUtils.step("=== DIAGNOSTIC: Checking wallet ready page elements ===");
         
         try {
-            Thread.sleep(5000);
+            WaitUtils.waitForUiToSettle();
             
             By[] possibleTitleLocators = {
                 By.xpath("//android.widget.TextView[@text='Brilliant, your wallet is ready!']"),
@@ -84,9 +86,8 @@ public class DiagnosticTest extends BaseTest {
             
             analyzePageSource();
             
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            LogUtils.error("Diagnostic interrupted", e);
+        } catch (Exception e) {
+            LogUtils.error("Error during wallet ready page diagnostic", e);
         }
     }
 
@@ -94,7 +95,7 @@ public class DiagnosticTest extends BaseTest {
         LogUtils.step("=== Dashboard Element IDs Diagnostic ===");
         
         try {
-            Thread.sleep(3000); 
+            WaitUtils.waitForUiToSettle();
             
             List<WebElement> elementsWithId = getDriver().findElements(By.xpath("//*[@resource-id]"));
             
@@ -115,6 +116,7 @@ public class DiagnosticTest extends BaseTest {
         
         try {
             String pageSource = getDriver().getPageSource();
+            LogUtils.info("Page source stored: " + ArtifactStore.putPageSource("dashboard_diagnostic", pageSource));
             
             if (pageSource.contains("Brilliant") || pageSource.contains("ready")) {
                 LogUtils.info("Page source contains 'Brilliant' or 'ready' - wallet ready page elements present");
@@ -138,6 +140,7 @@ public class DiagnosticTest extends BaseTest {
     private void analyzePageSource() {
         try {
             String pageSource = getDriver().getPageSource();
+            LogUtils.info("Page source stored: " + ArtifactStore.putPageSource("page_source_analysis", pageSource));
             
             LogUtils.info("=== Page Source Analysis ===");
             
@@ -63,7 +63,8 @@ public class SimpleWalletTest extends BaseTest {
         WalletReadyPage walletReadyPage = notificationPage.clickEnableNotifications();
         walletReadyPage.verifyPageIsLoaded()
                       .verifyAllElementsDisplayed()
-                      .verifyPageTexts();
+                      .verifyPageTexts()
+                      .verifyVisualBaseline();
         
         LogUtils.testEnd("testNotificationPageFlow", true);
     }
@@ -94,7 +95,8 @@ public class SimpleWalletTest extends BaseTest {
         
         DashboardPage dashboardPage = getDashboardPage();
         dashboardPage.verifyPageIsLoaded()
-                    .verifyNavigationButtonsDisplayed();
+                    .verifyNavigationButtonsDisplayed()
+                    .verifyVisualBaseline();
         
         LogUtils.testEnd("testDashboardPage", true);
     }
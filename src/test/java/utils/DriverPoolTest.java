@@ -0,0 +1,184 @@
+package utils;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+/**
+ * Lease, release, health check, discard and reset of {@link DriverPool} against
+ * a {@link StubAppiumServer}, using the same health check and app reset as the
+ * pools {@link DriverUtils} creates
+ */
+public class DriverPoolTest {
+    private static final String APP_ID = ConfigManager.getInstance().getAppPackage("android");
+
+    private StubAppiumServer server;
+
+    @BeforeMethod
+    public void startServer() throws Exception {
+        server = new StubAppiumServer();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void releasedSessionIsResetAndLeasedAgain() {
+        DriverPool pool = newPool(1, 0);
+
+        AppiumDriver first = pool.lease();
+        String firstId = sessionId(first);
+        pool.release(first, false);
+        AppiumDriver second = pool.lease();
+
+        Assert.assertSame(second, first);
+        Assert.assertEquals(pool.getMisses(), 1);
+        Assert.assertEquals(pool.getHits(), 1);
+        Assert.assertEquals(server.getSessionsCreated(), 1);
+
+        List<String> commands = server.getCommands(firstId);
+        int terminate = indexOf(commands, "mobile: terminateApp");
+        int clear = indexOf(commands, "mobile: clearApp");
+        int grant = indexOf(commands, "mobile: changePermissions");
+        int activate = indexOf(commands, "mobile: activateApp");
+        Assert.assertTrue(terminate >= 0 && terminate < clear && clear < grant && grant < activate, "Reset order was " + commands);
+        Assert.assertTrue(commands.get(clear).contains(APP_ID), "clearApp should target " + APP_ID);
+        Assert.assertTrue(commands.get(grant).contains("\"all\"") && commands.get(grant).contains(APP_ID),
+                "Permissions cleared with the app data should be granted again, as autoGrantPermissions does at install");
+        Assert.assertTrue(indexOf(commands, "GET /timeouts") > activate, "Idle session should be health checked on lease");
+        pool.shutdown();
+    }
+
+    @Test
+    public void unhealthyIdleSessionIsDiscardedAndReplaced() {
+        DriverPool pool = newPool(1, 0);
+
+        AppiumDriver first = pool.lease();
+        String firstId = sessionId(first);
+        pool.release(first, false);
+        server.killSession(firstId);
+        AppiumDriver second = pool.lease();
+
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(pool.getDiscarded(), 1);
+        Assert.assertEquals(pool.getMisses(), 2);
+        Assert.assertEquals(pool.getCreatedCount(), 1);
+        Assert.assertTrue(server.getCommands(firstId).contains("DELETE /"), "Discarded session should be quit");
+        pool.shutdown();
+    }
+
+    @Test
+    public void sessionThatFailsResetIsDiscarded() {
+        DriverPool pool = newPool(1, 0);
+
+        AppiumDriver first = pool.lease();
+        server.failCommandsContaining("mobile: clearApp");
+        pool.release(first, false);
+        server.failCommandsContaining(null);
+
+        Assert.assertEquals(pool.getDiscarded(), 1);
+        Assert.assertEquals(pool.getIdleCount(), 0);
+        Assert.assertEquals(pool.getCreatedCount(), 0);
+        Assert.assertNotSame(pool.lease(), first);
+        pool.shutdown();
+    }
+
+    @Test
+    public void brokenSessionIsQuitWithoutReset() {
+        DriverPool pool = newPool(1, 0);
+
+        AppiumDriver first = pool.lease();
+        String firstId = sessionId(first);
+        pool.release(first, true);
+
+        List<String> commands = server.getCommands(firstId);
+        Assert.assertEquals(pool.getDiscarded(), 1);
+        Assert.assertEquals(indexOf(commands, "mobile: terminateApp"), -1, "Broken session should not be reset");
+        Assert.assertTrue(commands.contains("DELETE /"));
+        pool.shutdown();
+    }
+
+    @Test
+    public void leaseTimesOutWhenEverySessionIsLeased() {
+        DriverPool pool = new DriverPool("android", 1, 200, 0, this::createDriver,
+                DriverUtils::isSessionResponsive, this::reset);
+
+        AppiumDriver first = pool.lease();
+        long start = System.currentTimeMillis();
+        Assert.assertThrows(IllegalStateException.class, pool::lease);
+        Assert.assertTrue(System.currentTimeMillis() - start >= 200);
+
+        pool.release(first, false);
+        Assert.assertSame(pool.lease(), first);
+        pool.shutdown();
+    }
+
+    @Test
+    public void backgroundResetHandsOverTheSession() {
+        DriverPool pool = newPool(1, 1);
+
+        AppiumDriver first = pool.lease();
+        String firstId = sessionId(first);
+        pool.release(first, false);
+        AppiumDriver second = pool.lease();
+
+        Assert.assertSame(second, first);
+        Assert.assertEquals(pool.getHits(), 1);
+        Assert.assertTrue(indexOf(server.getCommands(firstId), "mobile: activateApp") >= 0);
+        pool.shutdown();
+        Assert.assertEquals(pool.getIdleCount(), 0);
+    }
+
+    @Test
+    public void shutdownQuitsIdleSessions() {
+        DriverPool pool = newPool(2, 0);
+
+        AppiumDriver first = pool.lease();
+        String firstId = sessionId(first);
+        AppiumDriver second = pool.lease();
+        String secondId = sessionId(second);
+        pool.release(first, false);
+        pool.release(second, false);
+        pool.shutdown();
+
+        Assert.assertEquals(pool.getCreatedCount(), 0);
+        Assert.assertTrue(server.getCommands(firstId).contains("DELETE /"));
+        Assert.assertTrue(server.getCommands(secondId).contains("DELETE /"));
+    }
+
+    private DriverPool newPool(int maxSize, int maxInFlight) {
+        return new DriverPool("android", maxSize, 5000, maxInFlight, this::createDriver,
+                DriverUtils::isSessionResponsive, this::reset);
+    }
+
+    private AppiumDriver createDriver() {
+        DesiredCapabilities caps = new DesiredCapabilities();
+        caps.setCapability("appium:automationName", "UiAutomator2");
+        return new AndroidDriver(server.getUrl(), caps);
+    }
+
+    private boolean reset(AppiumDriver driver) {
+        return DriverUtils.resetAppState(driver, "android");
+    }
+
+    private static String sessionId(AppiumDriver driver) {
+        return String.valueOf(driver.getSessionId());
+    }
+
+    private static int indexOf(List<String> commands, String text) {
+        for (int i = 0; i < commands.size(); i++) {
+            if (commands.get(i).contains(text)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,137 @@
+package utils;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.remote.DesiredCapabilities;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * {@link FrameRecorder} reading from a local {@link MjpegStandIn}
+ */
+public class FrameRecorderTest {
+    private MjpegStandIn stream;
+    private FrameRecorder recorder;
+
+    @AfterMethod(alwaysRun = true)
+    public void stopAll() {
+        if (recorder != null) {
+            recorder.stop();
+            recorder = null;
+        }
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+        System.clearProperty("appium.server.url");
+    }
+
+    @Test
+    public void ringKeepsNewestSampledFramesOldestFirst() throws Exception {
+        stream = new MjpegStandIn(20, 2048, 0, 0);
+        recorder = new FrameRecorder("ring", stream.getUrl(), 1, 10, 4);
+        recorder.start();
+
+        waitUntil(() -> recorder.snapshotFrames().size() == 10
+                && MjpegStandIn.sequenceOf(recorder.snapshotFrames().get(0)) > 0, 5000);
+        List<byte[]> frames = recorder.snapshotFrames();
+
+        Assert.assertEquals(frames.size(), 10, "Ring should hold seconds * fps frames");
+        int previous = -1;
+        for (byte[] frame : frames) {
+            Assert.assertEquals(frame[0] & 0xFF, 0xFF);
+            Assert.assertEquals(frame[1] & 0xFF, 0xD8);
+            Assert.assertEquals(frame[frame.length - 2] & 0xFF, 0xFF);
+            Assert.assertEquals(frame[frame.length - 1] & 0xFF, 0xD9);
+            int sequence = MjpegStandIn.sequenceOf(frame);
+            Assert.assertTrue(sequence > previous, "Frames should be oldest first");
+            previous = sequence;
+        }
+        int sampledSpan = MjpegStandIn.sequenceOf(frames.get(9)) - MjpegStandIn.sequenceOf(frames.get(0));
+        Assert.assertTrue(sampledSpan >= 9 * 3, "Frames should be sampled at 10 fps from a 50 fps stream, span was " + sampledSpan);
+    }
+
+    @Test
+    public void oversizedFramesAreSkipped() throws Exception {
+        stream = new MjpegStandIn(20, 2048, 0, 0);
+        recorder = new FrameRecorder("oversized", stream.getUrl(), 1, 10, 1);
+        recorder.start();
+
+        waitUntil(() -> recorder.getStats().matches(".*oversized=([3-9]|\\d\\d+).*"), 5000);
+
+        Assert.assertTrue(recorder.snapshotFrames().isEmpty(), "Frames larger than a slot should not be stored");
+    }
+
+    @Test
+    public void reconnectsWhenTheStreamEnds() throws Exception {
+        stream = new MjpegStandIn(20, 2048, 2, 0);
+        recorder = new FrameRecorder("reconnect", stream.getUrl(), 2, 10, 4);
+        recorder.start();
+
+        waitUntil(() -> stream.getConnections() >= 2 && recorder.snapshotFrames().size() >= 3, 5000);
+
+        List<byte[]> frames = recorder.snapshotFrames();
+        Assert.assertTrue(MjpegStandIn.sequenceOf(frames.get(frames.size() - 1)) >= 2,
+                "Frames from the second connection should be recorded");
+    }
+
+    @Test
+    public void stopEndsReaderOnStalledStreamWithinReadTimeout() throws Exception {
+        stream = new MjpegStandIn(20, 2048, 1, 60_000);
+        recorder = new FrameRecorder("stalled", stream.getUrl(), 1, 10, 4);
+        recorder.start();
+        waitUntil(() -> recorder.snapshotFrames().size() == 1, 5000);
+
+        long start = System.currentTimeMillis();
+        recorder.stop();
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 500, "stop should not wait for the reader");
+        waitUntil(() -> !recorder.isRunning(), 3000);
+    }
+
+    @Test
+    public void discardedPooledSessionStopsItsRecorder() throws Exception {
+        stream = new MjpegStandIn(50, 2048, 0, 0);
+        try (StubAppiumServer server = new StubAppiumServer()) {
+            server.addCapability("appium:mjpegServerPort", stream.getPort());
+            System.setProperty("appium.server.url", server.getUrl().toString());
+            DriverPool pool = new DriverPool("android", 1, 5000, 0, () -> {
+                DesiredCapabilities caps = new DesiredCapabilities();
+                caps.setCapability("appium:automationName", "UiAutomator2");
+                return new AndroidDriver(server.getUrl(), caps);
+            }, DriverUtils::isSessionResponsive, driver -> DriverUtils.resetAppState(driver, "android"));
+
+            AppiumDriver driver = pool.lease();
+            String sessionId = String.valueOf(driver.getSessionId());
+            FrameRecorder.startFor(driver, "android");
+            waitUntil(() -> isRecorderThreadAlive(sessionId), 2000);
+
+            pool.release(driver, false);
+            server.killSession(sessionId);
+            pool.lease();
+
+            Assert.assertEquals(pool.getDiscarded(), 1);
+            waitUntil(() -> !isRecorderThreadAlive(sessionId), 3000);
+            pool.shutdown();
+        }
+    }
+
+    private static boolean isRecorderThreadAlive(String sessionId) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(thread -> thread.getName().equals("frame-recorder-" + sessionId) && thread.isAlive());
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("Condition not met within " + timeoutMs + "ms");
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package utils;
+
+import org.apache.logging.log4j.Level;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a disabled debug call: eager concatenation against the template and
+ * supplier overloads. Run with mvn test -Pbench -Dbench=LogUtils and compare
+ * gc.alloc.rate.norm (bytes per call).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LogUtilsBenchmark {
+    private char digit;
+    private boolean displayed;
+    private int elementCount;
+    private long elapsedMs;
+
+    @Setup
+    public void disableDebug() {
+        for (LogCategory category : LogCategory.values()) {
+            LogUtils.setLevel(category, Level.INFO);
+        }
+        digit = '7';
+        displayed = true;
+        elementCount = 412;
+        elapsedMs = 183;
+    }
+
+    @Benchmark
+    public void eagerConcatenation() {
+        LogUtils.debug("Digit button " + digit + " displayed: " + displayed);
+    }
+
+    @Benchmark
+    public void template() {
+        LogUtils.debug(LogCategory.ELEMENT, "Digit button {} displayed: {}", digit, displayed);
+    }
+
+    @Benchmark
+    public void supplier() {
+        LogUtils.debug(LogCategory.ELEMENT, () -> "Digit button " + digit + " displayed: " + displayed);
+    }
+
+    @Benchmark
+    public void eagerConcatenationLargeNumbers() {
+        LogUtils.debug("Page snapshot indexed " + elementCount + " elements in " + elapsedMs + "ms");
+    }
+
+    @Benchmark
+    public void templateLargeNumbers() {
+        LogUtils.debug(LogCategory.ELEMENT, "Page snapshot indexed {} elements in {}ms", elementCount, elapsedMs);
+    }
+
+    @Benchmark
+    public void supplierLargeNumbers() {
+        int count = elementCount;
+        long elapsed = elapsedMs;
+        LogUtils.debug(LogCategory.ELEMENT, () -> "Page snapshot indexed " + count + " elements in " + elapsed + "ms");
+    }
+}
@@ -0,0 +1,122 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Appium MJPEG screen stream. Each connection gets a
+ * multipart/x-mixed-replace response of JPEG-delimited frames whose payload is
+ * "frame-&lt;n&gt;" with n counting across connections.
+ */
+class MjpegStandIn implements AutoCloseable {
+    private static final String BOUNDARY = "--BoundaryString";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mjpeg-stand-in");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger frameCounter = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final long frameIntervalMs;
+    private final int frameSize;
+    private final int framesPerConnection;
+    private final long stallAfterFramesMs;
+
+    /**
+     * @param framesPerConnection frames sent before the connection is closed or stalls, 0 for no limit
+     * @param stallAfterFramesMs  how long to hold the connection open silently after the last frame
+     */
+    MjpegStandIn(long frameIntervalMs, int frameSize, int framesPerConnection, long stallAfterFramesMs) throws IOException {
+        this.frameIntervalMs = frameIntervalMs;
+        this.frameSize = frameSize;
+        this.framesPerConnection = framesPerConnection;
+        this.stallAfterFramesMs = stallAfterFramesMs;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::stream);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    URL getUrl() {
+        try {
+            return new URL("http://127.0.0.1:" + getPort() + "/");
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Sequence number of a frame produced by this server, or -1 when it is not one
+     */
+    static int sequenceOf(byte[] frame) {
+        String text = new String(frame, StandardCharsets.ISO_8859_1);
+        int start = text.indexOf("frame-");
+        if (start < 0) {
+            return -1;
+        }
+        int end = start + "frame-".length();
+        while (end < text.length() && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        return Integer.parseInt(text.substring(start + "frame-".length(), end));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void stream(HttpExchange exchange) throws IOException {
+        connections.incrementAndGet();
+        exchange.getResponseHeaders().set("Content-Type", "multipart/x-mixed-replace; boundary=" + BOUNDARY);
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int sent = 0; framesPerConnection == 0 || sent < framesPerConnection; sent++) {
+                byte[] frame = frame(frameCounter.getAndIncrement());
+                out.write((BOUNDARY + "\r\nContent-Type: image/jpeg\r\nContent-Length: " + frame.length + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                out.write(frame);
+                out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                Thread.sleep(frameIntervalMs);
+            }
+            Thread.sleep(stallAfterFramesMs);
+        } catch (IOException | InterruptedException e) {
+            // client went away or the server is stopping
+        }
+    }
+
+    private byte[] frame(int sequence) {
+        byte[] frame = new byte[Math.max(frameSize, 32)];
+        Arrays.fill(frame, (byte) 'x');
+        byte[] label = ("frame-" + sequence + ";").getBytes(StandardCharsets.US_ASCII);
+        frame[0] = (byte) 0xFF;
+        frame[1] = (byte) 0xD8;
+        System.arraycopy(label, 0, frame, 2, label.length);
+        frame[frame.length - 2] = (byte) 0xFF;
+        frame[frame.length - 1] = (byte) 0xD9;
+        return frame;
+    }
+}
@@ -0,0 +1,97 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Count, age and size quotas of {@link RetentionIndex} and reloading its file
+ */
+public class RetentionIndexTest {
+    private Path directory;
+    private Path file;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("retention-index");
+        file = directory.resolve("index.log");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void keepLastNCountsTheGivenKindsTogether() {
+        RetentionIndex index = new RetentionIndex(file);
+        add(index, "a", "png", 1);
+        add(index, "b", "jpg", 2);
+        add(index, "c", "png", 3);
+        add(index, "d", "jpg", 4);
+        add(index, "e", "xml", 5);
+
+        RetentionIndex.Eviction eviction = index.evict(Set.of("png", "jpg"), 2, 0, 0);
+
+        Assert.assertEquals(eviction.links, List.of(link("a"), link("b")), "Oldest screenshots of either kind go first");
+        Assert.assertEquals(index.size(), 3);
+    }
+
+    @Test
+    public void keepLastNOfZeroEvictsTheKindsAndNegativeDisablesIt() {
+        RetentionIndex index = new RetentionIndex(file);
+        add(index, "a", "png", 1);
+        add(index, "b", "xml", 2);
+
+        Assert.assertTrue(index.evict(Set.of("png"), -1, 0, 0).links.isEmpty());
+        Assert.assertEquals(index.evict(Set.of("png"), 0, 0, 0).links, List.of(link("a")));
+        Assert.assertEquals(index.size(), 1);
+    }
+
+    @Test
+    public void ageAndSizeQuotasEvictOldestAcrossKinds() {
+        long now = System.currentTimeMillis();
+        RetentionIndex index = new RetentionIndex(file);
+        add(index, "a", "png", now - 10_000);
+        add(index, "b", "xml", now - 5_000);
+        add(index, "c", "png", now);
+        add(index, "d", "xml", now);
+
+        Assert.assertEquals(index.evict(Set.of(), -1, 8_000, 0).links, List.of(link("a")));
+        Assert.assertEquals(index.evict(Set.of(), -1, 0, 200).links, List.of(link("b")));
+        Assert.assertEquals(index.getTotalBytes(), 200);
+    }
+
+    @Test
+    public void reloadSkipsEvictedEntries() {
+        RetentionIndex index = new RetentionIndex(file);
+        add(index, "a", "png", 1);
+        add(index, "b", "png", 2);
+        add(index, "c", "png", 3);
+        index.evict(Set.of("png"), 1, 0, 0);
+
+        RetentionIndex reloaded = new RetentionIndex(file);
+
+        Assert.assertEquals(reloaded.size(), 1);
+        Assert.assertTrue(reloaded.hasBlob("c") && !reloaded.hasBlob("a"));
+        add(reloaded, "d", "png", 4);
+        Assert.assertEquals(reloaded.evict(Set.of("png"), 1, 0, 0).links, List.of(link("c")));
+    }
+
+    private static void add(RetentionIndex index, String blob, String kind, long storedAt) {
+        index.add(blob, kind, 100, storedAt, "test", "run", link(blob));
+    }
+
+    private static Path link(String blob) {
+        return Paths.get("target", "screenshots", blob);
+    }
+}
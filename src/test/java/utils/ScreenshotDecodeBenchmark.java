@@ -0,0 +1,100 @@
+package utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storing a base64 screenshot payload: the previous whole-array decode, write
+ * and Allure attachment copy against the streamed decode into
+ * {@link ArtifactStore#copy}, whose Allure attachment is a hard link. Run with
+ * mvn test -Pbench -Dbench=ScreenshotDecode and compare gc.alloc.rate.norm
+ * (bytes per screenshot).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScreenshotDecodeBenchmark {
+    private String base64Png;
+    private Path blob;
+    private Path attachment;
+
+    /**
+     * A 1080x2340 PNG of about 1.6 MB, the size of a typical device screenshot
+     */
+    @Setup
+    public void createPayload() throws IOException {
+        BufferedImage image = new BufferedImage(1080, 2340, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int shade = (x / 4 + y / 8) & 0xFF;
+                image.setRGB(x, y, (shade << 16) | (random.nextInt(2) << 8) | (255 - shade));
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        base64Png = Base64.getEncoder().encodeToString(png.toByteArray());
+        blob = Files.createTempFile("screenshot-bench", ".png");
+        attachment = Files.createTempFile("screenshot-bench-attachment", ".png");
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(blob);
+        Files.deleteIfExists(attachment);
+    }
+
+    @Benchmark
+    public long wholeArrayDecode() throws Exception {
+        byte[] png = Base64.getMimeDecoder().decode(base64Png);
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(png);
+        try (FileChannel channel = FileChannel.open(blob, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(png);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(attachment, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = Channels.newOutputStream(channel)) {
+            return new ByteArrayInputStream(png).transferTo(out) + digest.digest().length;
+        }
+    }
+
+    @Benchmark
+    public long streamedDecode() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (ScreenshotPipeline.Base64InputStream png = new ScreenshotPipeline.Base64InputStream(base64Png)) {
+            return ArtifactStore.copy(png, blob, digest) + digest.digest().length;
+        }
+    }
+}
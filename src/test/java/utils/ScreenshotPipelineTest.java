@@ -0,0 +1,134 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Backpressure and draining of {@link ScreenshotPipeline}, with an encoder that
+ * holds every write until the test lets it finish
+ */
+public class ScreenshotPipelineTest {
+    private Path directory;
+    private BlockingEncoder encoder;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("screenshot-pipeline");
+        encoder = new BlockingEncoder();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDirectory() throws IOException {
+        encoder.release.countDown();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void fullQueueRunsTheWriteOnTheSubmittingThread() throws Exception {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(1, 1, encoder);
+
+        Thread submitter = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                pipeline.submit("AAAA", directory.resolve("shot" + i + ".jpg"), "shot " + i, null);
+            }
+        }, "test-submitter");
+        submitter.start();
+
+        waitUntil(() -> encoder.threads.size() == 2, 5000);
+        Assert.assertTrue(encoder.threads.stream().anyMatch(name -> name.startsWith("screenshot-writer-")),
+                "First write should run on the pool, writers were " + encoder.threads);
+        Assert.assertTrue(encoder.threads.contains("test-submitter"),
+                "With the worker busy and the queue full the caller should write, writers were " + encoder.threads);
+        Assert.assertEquals(pipeline.getQueueDepth(), 3);
+
+        encoder.release.countDown();
+        submitter.join(5000);
+        Assert.assertTrue(pipeline.drain(5000));
+        Assert.assertEquals(encoder.threads.size(), 3);
+    }
+
+    @Test
+    public void drainWaitsForWritesInProgress() throws Exception {
+        ScreenshotPipeline pipeline = new ScreenshotPipeline(2, 4, encoder);
+        pipeline.submit("AAAA", directory.resolve("first.jpg"), "first", null);
+        pipeline.submit("AAAA", directory.resolve("second.jpg"), "second", null);
+        waitUntil(() -> encoder.threads.size() == 2, 5000);
+
+        long start = System.currentTimeMillis();
+        Assert.assertFalse(pipeline.drain(200), "Drain should time out while writes are held");
+        Assert.assertTrue(System.currentTimeMillis() - start >= 200);
+
+        new Thread(() -> {
+            sleepQuietly(300);
+            encoder.release.countDown();
+        }).start();
+        start = System.currentTimeMillis();
+        Assert.assertTrue(pipeline.drain(5000));
+        long waited = System.currentTimeMillis() - start;
+
+        Assert.assertTrue(waited < 2000, "Drain should return once the writes complete, took " + waited + "ms");
+        Assert.assertEquals(pipeline.getQueueDepth(), 0);
+        Assert.assertTrue(Files.exists(directory.resolve("first.jpg")) && Files.exists(directory.resolve("second.jpg")));
+        Assert.assertTrue(pipeline.getStats().startsWith("written=2, failed=0"), pipeline.getStats());
+    }
+
+    private static void waitUntil(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail("Condition not met within " + timeoutMs + "ms");
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * JPEG encoder stand-in that records the writing thread and blocks until released
+     */
+    private static class BlockingEncoder extends ScreenshotEncoder {
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        private BlockingEncoder() {
+            super("jpeg", 0.8f, 0, false, 0);
+        }
+
+        @Override
+        public void encode(InputStream png, Region crop, OutputStream out) throws IOException {
+            threads.add(Thread.currentThread().getName());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while held", e);
+            }
+            out.write(("encoded by " + Thread.currentThread().getName() + " " + System.nanoTime()).getBytes());
+        }
+    }
+}
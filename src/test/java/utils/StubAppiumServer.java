@@ -0,0 +1,149 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal W3C WebDriver endpoint for driving real AppiumDriver instances
+ * without a device. Every session command succeeds unless its session was
+ * killed or the command matches a configured failure; commands are recorded
+ * as "METHOD /command" per session.
+ */
+class StubAppiumServer implements AutoCloseable {
+    private final HttpServer server;
+    private final AtomicInteger sessionCounter = new AtomicInteger();
+    private final Set<String> liveSessions = ConcurrentHashMap.newKeySet();
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final Map<String, Object> extraCapabilities = new ConcurrentHashMap<>();
+    private volatile String failingCommand;
+
+    StubAppiumServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URL getUrl() {
+        try {
+            return new URL("http://127.0.0.1:" + server.getAddress().getPort());
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    int getSessionsCreated() {
+        return sessionCounter.get();
+    }
+
+    /**
+     * Commands received for a session, in order
+     */
+    List<String> getCommands(String sessionId) {
+        List<String> result = new ArrayList<>();
+        String prefix = sessionId + " ";
+        for (String command : commands) {
+            if (command.startsWith(prefix)) {
+                result.add(command.substring(prefix.length()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return an extra string or number capability from sessions created from now on
+     */
+    void addCapability(String name, Object value) {
+        extraCapabilities.put(name, value);
+    }
+
+    /**
+     * Make every further command of the session fail as if the device had gone away
+     */
+    void killSession(String sessionId) {
+        liveSessions.remove(sessionId);
+    }
+
+    /**
+     * Fail session commands whose recorded form contains the given text, or none when null
+     */
+    void failCommandsContaining(String text) {
+        failingCommand = text;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+        if (method.equals("POST") && path.equals("/session")) {
+            String sessionId = "stub-" + sessionCounter.incrementAndGet();
+            liveSessions.add(sessionId);
+            StringBuilder capabilities = new StringBuilder("{\"platformName\":\"Android\",\"automationName\":\"UiAutomator2\"");
+            extraCapabilities.forEach((name, value) -> capabilities.append(",\"").append(name).append("\":")
+                    .append(value instanceof Number ? value.toString() : "\"" + value + "\""));
+            capabilities.append('}');
+            respond(exchange, 200, "{\"value\":{\"sessionId\":\"" + sessionId + "\",\"capabilities\":" + capabilities + "}}");
+            return;
+        }
+        if (!path.startsWith("/session/")) {
+            respond(exchange, 404, error("unknown command", path));
+            return;
+        }
+
+        String rest = path.substring("/session/".length());
+        int slash = rest.indexOf('/');
+        String sessionId = slash < 0 ? rest : rest.substring(0, slash);
+        String command = method + " " + (slash < 0 ? "/" : rest.substring(slash));
+        if (command.endsWith("/execute/sync")) {
+            command += " " + body;
+        }
+        commands.add(sessionId + " " + command);
+
+        if (!liveSessions.contains(sessionId)) {
+            respond(exchange, 404, error("invalid session id", "Session " + sessionId + " does not exist"));
+        } else if (failingCommand != null && command.contains(failingCommand)) {
+            respond(exchange, 500, error("unknown error", "Stubbed failure for " + command));
+        } else if (method.equals("DELETE") && slash < 0) {
+            liveSessions.remove(sessionId);
+            respond(exchange, 200, "{\"value\":null}");
+        } else if (command.contains("mobile: terminateApp")) {
+            respond(exchange, 200, "{\"value\":true}");
+        } else if (method.equals("GET") && command.endsWith("/timeouts")) {
+            respond(exchange, 200, "{\"value\":{\"implicit\":0,\"pageLoad\":300000,\"script\":30000}}");
+        } else {
+            respond(exchange, 200, "{\"value\":null}");
+        }
+    }
+
+    private static String error(String error, String message) {
+        return "{\"value\":{\"error\":\"" + error + "\",\"message\":\"" + message + "\",\"stacktrace\":\"\"}}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}